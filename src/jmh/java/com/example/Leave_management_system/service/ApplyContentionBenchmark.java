@@ -0,0 +1,89 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.dto.ApplyLeaveRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * apply() under contention: 8 threads applying for one employee, which serializes on its
+ * lock stripe and employee row, against 8 threads each applying for its own employee.
+ * stripes=1 puts every employee on one stripe, so ownEmployee then measures stripe
+ * contention alone (the employee rows still differ).
+ *
+ *   mvn -Pbench test-compile exec:exec -Djmh.args="ApplyContentionBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ApplyContentionBenchmark {
+
+    @Param("1000")
+    public int employees;
+
+    @Param("10000")
+    public int leaves;
+
+    @Param({"256", "1"})
+    public int stripes;
+
+    private static final LocalDate FUTURE = LocalDate.of(2040, 1, 2); // a Monday
+
+    private ConfigurableApplicationContext ctx;
+    private LeaveService leaveService;
+    private final AtomicLong sharedSeq = new AtomicLong();
+    private final AtomicLong nextEmployee = new AtomicLong(2); // 1 is HR
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = BenchmarkContext.start("contention", Map.of("leave.apply.lock-stripes", stripes));
+        BenchmarkContext.seed(ctx, employees, leaves);
+        leaveService = ctx.getBean(LeaveService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Worker {
+        long employee;
+        long seq;
+
+        @Setup(Level.Trial)
+        public void pick(ApplyContentionBenchmark b) {
+            employee = b.nextEmployee.getAndIncrement();
+        }
+    }
+
+    /** every thread books the next free day of employee 2 */
+    @Benchmark
+    public Long oneEmployee() {
+        return apply(2, sharedSeq.getAndIncrement());
+    }
+
+    /** each thread books days of its own employee */
+    @Benchmark
+    public Long ownEmployee(Worker w) {
+        return apply(w.employee, w.seq++);
+    }
+
+    private Long apply(long employee, long n) {
+        var day = FUTURE.plusWeeks(n / 5).plusDays(n % 5); // n-th weekday
+        var req = new ApplyLeaveRequest();
+        req.setEmployeeId(employee);
+        req.setStartDate(day);
+        req.setEndDate(day);
+        req.setReason("bench");
+        return leaveService.apply(req);
+    }
+}
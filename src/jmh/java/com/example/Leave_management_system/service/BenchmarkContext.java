@@ -0,0 +1,85 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.LeaveManagementSystemApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Boots the application against a private in-memory H2 (MySQL mode) and seeds it with
+ * a configurable volume of employees and leave rows via JDBC batches. Employee 1 is HR.
+ */
+final class BenchmarkContext {
+
+    static final LocalDate HISTORY_START = LocalDate.of(2015, 1, 1);
+    static final int HISTORY_DAYS = 365 * 10;
+    private static final int BATCH = 5_000;
+
+    private BenchmarkContext() {}
+
+    static ConfigurableApplicationContext start(String name, Map<String, Object> extraProperties) {
+        Map<String, Object> props = new java.util.HashMap<>(Map.of(
+                "spring.datasource.url", "jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "spring.jpa.hibernate.ddl-auto", "validate",
+                "spring.jpa.show-sql", "false",
+                "server.port", "0",
+                "logging.level.root", "WARN"));
+        props.putAll(extraProperties);
+        return new SpringApplicationBuilder(LeaveManagementSystemApplication.class)
+                .properties(props)
+                .run();
+    }
+
+    /** Seeds employees (id 1 = HR) and ~leaves rows spread over ten years, then rebuilds the ledger. */
+    static void seed(ConfigurableApplicationContext ctx, int employees, int leaves) {
+        var jdbc = ctx.getBean(JdbcTemplate.class);
+        var rnd = new SplittableRandom(42);
+
+        List<Object[]> emps = new ArrayList<>(BATCH);
+        for (int i = 1; i <= employees; i++) {
+            emps.add(new Object[]{"Employee " + i, "emp" + i + "@bench.local", "x", "DEPT-" + (i % 20),
+                    Date.valueOf(HISTORY_START.minusYears(1)), i == 1, i == 1 ? "HR" : "EMPLOYEE", 18});
+            if (emps.size() == BATCH || i == employees) {
+                jdbc.batchUpdate("""
+                    insert into employees(name, email, password, department, joining_date, hr, role, annual_allocation_days)
+                    values (?,?,?,?,?,?,?,?)""", emps);
+                emps.clear();
+            }
+        }
+
+        int perEmployee = Math.max(1, leaves / employees);
+        int step = Math.max(4, HISTORY_DAYS / perEmployee); // non-overlapping, <= ~18 approved days/year
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        var created = LocalDateTime.of(2015, 1, 1, 0, 0);
+        for (int n = 0; n < leaves; n++) {
+            long emp = 1 + (n % employees);
+            int slot = n / employees;
+            var start = HISTORY_START.plusDays((long) slot * step);
+            int days = 1 + rnd.nextInt(2);
+            int r = rnd.nextInt(10);
+            String status = r < 6 ? "APPROVED" : r < 8 ? "REJECTED" : "PENDING";
+            var ts = Timestamp.valueOf(created.plusMinutes(n));
+            rows.add(new Object[]{emp, "ANNUAL", status, Date.valueOf(start), Date.valueOf(start.plusDays(days - 1)),
+                    days, "seeded", status.equals("PENDING") ? null : 1L, ts, ts, 0});
+            if (rows.size() == BATCH || n == leaves - 1) {
+                jdbc.batchUpdate("""
+                    insert into leave_requests(employee_id, type, status, start_date, end_date, days, reason,
+                                               approver_id, created_at, updated_at, version)
+                    values (?,?,?,?,?,?,?,?,?,?,?)""", rows);
+                rows.clear();
+            }
+        }
+
+        var ledger = ctx.getBean(BalanceLedgerService.class);
+        for (int y = HISTORY_START.getYear(); y <= LocalDate.now().getYear() + 1; y++) ledger.rebuild(y);
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.Repository.LeaveRequestRepository;
+import com.example.Leave_management_system.dto.ApplyLeaveRequest;
+import com.example.Leave_management_system.dto.DecisionRequest;
+import com.example.Leave_management_system.dto.LeaveDto;
+import com.example.Leave_management_system.dto.PageResponse;
+import com.example.Leave_management_system.dto.BalanceResponse;
+import com.example.Leave_management_system.dto.CursorPageResponse;
+import com.example.Leave_management_system.model.LeaveRequest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service-layer hot paths against a seeded embedded database.
+ * Throughput plus SampleTime (which reports p50/p90/p99/p99.9) for each operation.
+ *
+ *   mvn -Pbench test-compile exec:exec -Djmh.args="LeaveServiceBenchmark -p employees=10000 -p leaves=1000000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class LeaveServiceBenchmark {
+
+    @Param("1000")
+    public int employees;
+
+    @Param("100000")
+    public int leaves;
+
+    private ConfigurableApplicationContext ctx;
+    private LeaveService leaveService;
+    private LeaveRequestRepository repo;
+    private TransactionTemplate readOnlyTx;
+    private List<LeaveRequest> dtoSource;
+
+    // future dates keep apply/approve clear of the seeded history and of each other
+    private static final LocalDate FUTURE = LocalDate.of(2040, 1, 2); // a Monday
+
+    /** k-th working day (Mon-Fri) from a Monday; weekend-only leaves are rejected by apply */
+    private static LocalDate weekday(LocalDate monday, long k) {
+        return monday.plusWeeks(k / 5).plusDays(k % 5);
+    }
+    private final AtomicLong applySeq = new AtomicLong();
+    private final AtomicLong approveSeq = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = BenchmarkContext.start("bench", Map.of());
+        BenchmarkContext.seed(ctx, employees, leaves);
+        leaveService = ctx.getBean(LeaveService.class);
+
+        repo = ctx.getBean(LeaveRequestRepository.class);
+        readOnlyTx = new TransactionTemplate(ctx.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        dtoSource = readOnlyTx.execute(s -> repo.findAll(PageRequest.of(0, 100)).getContent());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    private long randomEmployee() {
+        return 2 + ThreadLocalRandom.current().nextLong(employees - 1); // 1 is the HR approver
+    }
+
+    @Benchmark
+    public Long apply() {
+        long n = applySeq.getAndIncrement();
+        long emp = 2 + n % (employees - 1);
+        var day = weekday(FUTURE, n / (employees - 1));
+        var req = new ApplyLeaveRequest();
+        req.setEmployeeId(emp);
+        req.setStartDate(day);
+        req.setEndDate(day);
+        req.setReason("bench");
+        return leaveService.apply(req);
+    }
+
+    @State(Scope.Thread)
+    public static class PendingLeave {
+        Long leaveId;
+
+        @Setup(Level.Invocation)
+        public void create(LeaveServiceBenchmark b) {
+            // 20-day slots per employee keep approvals under the 18-day yearly allocation
+            long n = b.approveSeq.getAndIncrement();
+            long emp = 2 + n % (b.employees - 1);
+            var day = weekday(LocalDate.of(2060, 1, 5), 20 * (n / (b.employees - 1)));
+            var req = new ApplyLeaveRequest();
+            req.setEmployeeId(emp);
+            req.setStartDate(day);
+            req.setEndDate(day);
+            leaveId = b.leaveService.apply(req);
+        }
+    }
+
+    @Benchmark
+    public void approve(PendingLeave pending) {
+        var req = new DecisionRequest();
+        req.setApproverId(1L);
+        req.setNote("ok");
+        leaveService.approve(pending.leaveId, req);
+    }
+
+    @Benchmark
+    public BalanceResponse balance() {
+        return leaveService.balance(randomEmployee());
+    }
+
+    @Benchmark
+    public PageResponse<LeaveDto> listLeavesByEmployee() {
+        return leaveService.listLeaves(null, randomEmployee(), 0, 20);
+    }
+
+    @Benchmark
+    public PageResponse<LeaveDto> listLeavesDeepPage() {
+        return leaveService.listLeaves("APPROVED", null, ThreadLocalRandom.current().nextInt(50, 100), 20);
+    }
+
+    @Benchmark
+    public CursorPageResponse<LeaveDto> listLeavesByCursor() {
+        return leaveService.listLeavesByCursor("APPROVED", null, "", 20);
+    }
+
+    // Same page fetched two ways; run with -prof gc to compare allocations per page.
+    @Benchmark
+    public List<LeaveDto> pageViaEntityHydration() {
+        int page = ThreadLocalRandom.current().nextInt(0, 50);
+        return readOnlyTx.execute(s -> repo.findAll(PageRequest.of(page, 20, Sort.by(Sort.Direction.DESC, "createdAt")))
+                .map(LeaveService::toDto).getContent());
+    }
+
+    @Benchmark
+    public List<LeaveDto> pageViaDtoProjection() {
+        int page = ThreadLocalRandom.current().nextInt(0, 50);
+        return leaveService.listLeaves(null, null, page, 20).getItems();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void toDto(Blackhole bh) {
+        for (var lr : dtoSource) bh.consume(LeaveService.toDto(lr));
+    }
+}
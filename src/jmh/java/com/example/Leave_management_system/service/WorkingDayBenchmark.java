@@ -0,0 +1,67 @@
+package com.example.Leave_management_system.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Working days in a range: YearMask popcounts (what apply uses) against the naive loop
+ * over every date with a weekend check and a holiday-set lookup. No Spring context.
+ *
+ *   mvn -Pbench test-compile exec:exec -Djmh.args="WorkingDayBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkingDayBenchmark {
+
+    private static final Set<DayOfWeek> WEEKEND = EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+    private static final int RANGES = 1024;
+
+    /** calendar days per range */
+    @Param({"5", "30", "365"})
+    public int days;
+
+    private final Map<Integer, YearMask> masks = new HashMap<>();
+    private final Set<LocalDate> holidays = new HashSet<>();
+    private final LocalDate[] starts = new LocalDate[RANGES];
+    private final LocalDate[] ends = new LocalDate[RANGES];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var rnd = new Random(42);
+        for (int y = 2024; y <= 2028; y++) {
+            List<LocalDate> yearHolidays = new ArrayList<>();
+            for (int i = 0; i < 12; i++) yearHolidays.add(LocalDate.ofYearDay(y, 1 + rnd.nextInt(365)));
+            holidays.addAll(yearHolidays);
+            masks.put(y, YearMask.of(y, WEEKEND, yearHolidays));
+        }
+        for (int i = 0; i < RANGES; i++) {
+            starts[i] = LocalDate.of(2025, 1, 1).plusDays(rnd.nextInt(3 * 365));
+            ends[i] = starts[i].plusDays(days - 1);
+        }
+    }
+
+    @Benchmark
+    public int bitmask() {
+        int i = next++ & (RANGES - 1);
+        return WorkingDayCalendar.count(masks::get, starts[i], ends[i]);
+    }
+
+    @Benchmark
+    public int dayLoop() {
+        int i = next++ & (RANGES - 1);
+        int n = 0;
+        for (var d = starts[i]; !d.isAfter(ends[i]); d = d.plusDays(1)) {
+            if (!WEEKEND.contains(d.getDayOfWeek()) && !holidays.contains(d)) n++;
+        }
+        return n;
+    }
+}
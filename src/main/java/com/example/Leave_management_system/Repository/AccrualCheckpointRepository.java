@@ -0,0 +1,21 @@
+package com.example.Leave_management_system.Repository;
+
+import com.example.Leave_management_system.model.AccrualCheckpoint;
+import com.example.Leave_management_system.model.AccrualCheckpointId;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface AccrualCheckpointRepository extends JpaRepository<AccrualCheckpoint, AccrualCheckpointId> {
+
+    @Query("select c from AccrualCheckpoint c where c.id.period = :period order by c.id.partition")
+    List<AccrualCheckpoint> findByPeriod(Integer period);
+
+    // one chunk at a time per partition, across threads and nodes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<AccrualCheckpoint> findWithLockById(AccrualCheckpointId id);
+}
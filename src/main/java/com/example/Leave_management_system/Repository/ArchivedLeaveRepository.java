@@ -0,0 +1,82 @@
+package com.example.Leave_management_system.Repository;
+
+import com.example.Leave_management_system.dto.LeaveDto;
+import com.example.Leave_management_system.model.ArchivedLeave;
+import com.example.Leave_management_system.model.LeaveStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ArchivedLeaveRepository extends JpaRepository<ArchivedLeave, Long> {
+
+    // ---- Archival move: copy a locked batch of leave_requests rows, same ids ----
+    @Modifying
+    @Query(value = """
+      insert into leave_requests_archive
+        (id, employee_id, type, status, start_date, end_date, days, reason, approver_id, decision_note,
+         created_at, updated_at, version, archived_at)
+      select id, employee_id, type, status, start_date, end_date, days, reason, approver_id, decision_note,
+             created_at, updated_at, version, :archivedAt
+      from leave_requests where id in :ids
+    """, nativeQuery = true)
+    int copyFromHot(Collection<Long> ids, LocalDateTime archivedAt);
+
+    // ---- Read paths (only when the caller asks for archived leaves); same DTO shape as the hot table ----
+    String DTO_SELECT = """
+      select new com.example.Leave_management_system.dto.LeaveDto(
+          l.id, e.id, e.name, e.department, l.type, l.status, l.days,
+          l.startDate, l.endDate, l.reason, a.id, a.name, l.decisionNote, l.createdAt, l.updatedAt)
+      from ArchivedLeave l join l.employee e left join l.approver a
+    """;
+    String NEWEST_FIRST = " order by l.createdAt desc, l.id desc";
+
+    @Query(DTO_SELECT + " where l.id = :id")
+    Optional<LeaveDto> findDtoById(Long id);
+
+    @Query("select l.version from ArchivedLeave l where l.id = :id")
+    Optional<Integer> findVersionById(Long id);
+
+    @Query(value = DTO_SELECT + NEWEST_FIRST,
+           countQuery = "select count(l) from ArchivedLeave l")
+    Page<LeaveDto> findDtoPage(Pageable pageable);
+
+    @Query(value = DTO_SELECT + " where l.status = :status" + NEWEST_FIRST,
+           countQuery = "select count(l) from ArchivedLeave l where l.status = :status")
+    Page<LeaveDto> findDtoPageByStatus(LeaveStatus status, Pageable pageable);
+
+    @Query(value = DTO_SELECT + " where l.employee.id = :employeeId" + NEWEST_FIRST,
+           countQuery = "select count(l) from ArchivedLeave l where l.employee.id = :employeeId")
+    Page<LeaveDto> findDtoPageByEmployee(Long employeeId, Pageable pageable);
+
+    @Query(value = DTO_SELECT + " where l.employee.id = :employeeId and l.status = :status" + NEWEST_FIRST,
+           countQuery = "select count(l) from ArchivedLeave l where l.employee.id = :employeeId and l.status = :status")
+    Page<LeaveDto> findDtoPageByEmployeeAndStatus(Long employeeId, LeaveStatus status, Pageable pageable);
+
+    // ---- Ledger reconcile / rollup recompute: archived rows still count ----
+    @Query("""
+      select l.employee.id as employeeId, l.type as type, coalesce(sum(l.days),0) as days
+      from ArchivedLeave l
+      where l.status = com.example.Leave_management_system.model.LeaveStatus.APPROVED
+        and l.startDate >= :yearStart and l.startDate <= :yearEnd
+      group by l.employee.id, l.type
+    """)
+    List<LeaveRequestRepository.ApprovedDaysRow> sumApprovedDaysGrouped(LocalDate yearStart, LocalDate yearEnd);
+
+    @Query("""
+      select l.type as type, l.status as status,
+             year(l.startDate) as year, month(l.startDate) as month,
+             count(l) as count, coalesce(sum(l.days),0) as days
+      from ArchivedLeave l join l.employee e
+      where e.department = :department
+      group by l.type, l.status, year(l.startDate), month(l.startDate)
+    """)
+    List<LeaveRequestRepository.UsageRow> aggregateUsageByDepartment(String department);
+}
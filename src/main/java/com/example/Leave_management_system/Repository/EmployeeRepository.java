@@ -2,11 +2,47 @@ package com.example.Leave_management_system.Repository;
 
 
 import com.example.Leave_management_system.model.Employee;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     Optional<Employee> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    // apply() guard: serializes concurrent applications of one employee across nodes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Employee> findWithLockById(Long id);
+
+    @Query("select distinct e.department from Employee e")
+    List<String> findDistinctDepartments();
+
+    // ---- Accrual / carry-forward runs: id bounds for partitioning, then keyset chunks of allocation data ----
+    interface IdRangeRow {
+        Long getMinId();
+        Long getMaxId();
+    }
+
+    @Query("select min(e.id) as minId, max(e.id) as maxId from Employee e")
+    IdRangeRow findIdRange();
+
+    interface AllocationRow {
+        Long getId();
+        LocalDate getJoiningDate();
+        Integer getAnnualAllocationDays();
+    }
+
+    @Query("""
+      select e.id as id, e.joiningDate as joiningDate, e.annualAllocationDays as annualAllocationDays
+      from Employee e
+      where e.id > :afterId and e.id <= :toId
+      order by e.id
+    """)
+    List<AllocationRow> findAllocationChunk(Long afterId, Long toId, Pageable pageable);
 }
@@ -0,0 +1,23 @@
+package com.example.Leave_management_system.Repository;
+
+import com.example.Leave_management_system.model.Holiday;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface HolidayRepository extends JpaRepository<Holiday, Long> {
+
+    @Query("select h.date from Holiday h where h.calendar = :calendar and h.date between :from and :to")
+    List<LocalDate> findDates(String calendar, LocalDate from, LocalDate to);
+
+    List<Holiday> findByCalendarAndDateBetweenOrderByDate(String calendar, LocalDate from, LocalDate to);
+
+    @Query("select distinct h.calendar from Holiday h")
+    List<String> findDistinctCalendars();
+
+    boolean existsByCalendarAndDate(String calendar, LocalDate date);
+
+    boolean existsByCalendar(String calendar);
+}
@@ -0,0 +1,16 @@
+package com.example.Leave_management_system.Repository;
+
+import com.example.Leave_management_system.model.IdempotencyKey;
+import com.example.Leave_management_system.model.IdempotencyKeyId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, IdempotencyKeyId> {
+
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+}
@@ -0,0 +1,49 @@
+package com.example.Leave_management_system.Repository;
+
+import com.example.Leave_management_system.model.LeaveAccrual;
+import com.example.Leave_management_system.model.LeaveAccrualId;
+import com.example.Leave_management_system.model.LeaveType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface LeaveAccrualRepository extends JpaRepository<LeaveAccrual, LeaveAccrualId> {
+
+    // ---- Balance (accrual mode): PK-prefix range, at most 12 rows per type ----
+    interface AccruedRow {
+        LeaveType getType();
+        BigDecimal getDays();
+    }
+
+    @Query("""
+      select a.id.type as type, sum(a.days) as days
+      from LeaveAccrual a
+      where a.id.employeeId = :employeeId and a.id.period between :fromPeriod and :toPeriod
+      group by a.id.type
+    """)
+    List<AccruedRow> sumByType(Long employeeId, Integer fromPeriod, Integer toPeriod);
+
+    // ---- Accrual run: employees of a chunk that already have this period's rows ----
+    @Query("""
+      select distinct a.id.employeeId from LeaveAccrual a
+      where a.id.period = :period and a.id.employeeId > :afterId and a.id.employeeId <= :toId
+    """)
+    List<Long> findAccruedEmployeeIds(Integer period, Long afterId, Long toId);
+
+    // ---- Year-end carry-forward: accrued days of one type per employee of a chunk ----
+    interface EmployeeDaysRow {
+        Long getEmployeeId();
+        BigDecimal getDays();
+    }
+
+    @Query("""
+      select a.id.employeeId as employeeId, sum(a.days) as days
+      from LeaveAccrual a
+      where a.id.type = :type and a.id.period between :fromPeriod and :toPeriod
+        and a.id.employeeId > :afterId and a.id.employeeId <= :toId
+      group by a.id.employeeId
+    """)
+    List<EmployeeDaysRow> sumForRange(LeaveType type, Integer fromPeriod, Integer toPeriod, Long afterId, Long toId);
+}
@@ -0,0 +1,55 @@
+package com.example.Leave_management_system.Repository;
+
+import com.example.Leave_management_system.model.LeaveBalance;
+import com.example.Leave_management_system.model.LeaveBalanceId;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface LeaveBalanceRepository extends JpaRepository<LeaveBalance, LeaveBalanceId> {
+
+    // PK-prefix lookup: at most one row per LeaveType
+    List<LeaveBalance> findAllById_EmployeeIdAndId_Year(Long employeeId, Integer year);
+
+    List<LeaveBalance> findAllById_Year(Integer year);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from LeaveBalance b where b.id.year = :year and b.id.employeeId in :employeeIds")
+    List<LeaveBalance> findForUpdate(Integer year, Collection<Long> employeeIds);
+
+    // batch decisions: a missing row is created before findForUpdate so it gets locked too
+    @Modifying
+    @Query(value = """
+      insert ignore into leave_balances (employee_id, balance_year, leave_type, approved_days, carried_in_days, updated_at, version)
+      values (:employeeId, :year, :type, 0, 0, current_timestamp, 0)
+    """, nativeQuery = true)
+    void createIfAbsent(Long employeeId, Integer year, String type);
+
+    // ---- Year-end carry-forward: opening balances of one employee id chunk ----
+    interface CarriedInRow {
+        Long getEmployeeId();
+        Integer getDays();
+    }
+
+    @Query("""
+      select b.id.employeeId as employeeId, b.carriedInDays as days
+      from LeaveBalance b
+      where b.id.year = :year and b.carriedInDays <> 0
+        and b.id.employeeId > :afterId and b.id.employeeId <= :toId
+    """)
+    List<CarriedInRow> findCarriedIn(Integer year, Long afterId, Long toId);
+
+    // version bumped so an approval holding a stale copy of the row fails instead of overwriting it
+    @Modifying
+    @Query("""
+      update LeaveBalance b set b.carriedInDays = 0, b.version = b.version + 1
+      where b.id.year = :year and b.carriedInDays <> 0
+        and b.id.employeeId > :afterId and b.id.employeeId <= :toId
+    """)
+    int clearCarriedIn(Integer year, Long afterId, Long toId);
+}
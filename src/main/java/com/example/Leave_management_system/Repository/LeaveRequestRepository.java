@@ -1,39 +1,244 @@
 // src/main/java/com/example/Leave_management_system/Repository/LeaveRequestRepository.java
 package com.example.Leave_management_system.Repository;
 
+import com.example.Leave_management_system.dto.LeaveDto;
 import com.example.Leave_management_system.model.LeaveRequest;
 import com.example.Leave_management_system.model.LeaveStatus;
+import com.example.Leave_management_system.model.LeaveType;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.EntityGraph;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long> {
 
     boolean existsByEmployee_IdAndStatusInAndEndDateGreaterThanEqualAndStartDateLessThanEqual(
             Long employeeId, Collection<LeaveStatus> statuses, LocalDate start, LocalDate end);
 
+    // ---- Overlap index warm-up: all blocking ranges of one employee ----
+    interface DateRangeRow {
+        Long getId();
+        LocalDate getStartDate();
+        LocalDate getEndDate();
+    }
+
     @Query("""
-      select coalesce(sum(l.days),0)
+      select l.id as id, l.startDate as startDate, l.endDate as endDate
       from LeaveRequest l
-      where l.employee.id = :employeeId
-        and l.status = com.example.Leave_management_system.model.LeaveStatus.APPROVED
+      where l.employee.id = :employeeId and l.status in :statuses
+    """)
+    List<DateRangeRow> findRangesByEmployee(Long employeeId, Collection<LeaveStatus> statuses);
+
+    // ---- Ledger rebuild: one grouped scan per year instead of one SUM per employee ----
+    interface ApprovedDaysRow {
+        Long getEmployeeId();
+        LeaveType getType();
+        Long getDays();
+    }
+
+    @Query("""
+      select l.employee.id as employeeId, l.type as type, coalesce(sum(l.days),0) as days
+      from LeaveRequest l
+      where l.status = com.example.Leave_management_system.model.LeaveStatus.APPROVED
         and l.startDate >= :yearStart and l.startDate <= :yearEnd
+      group by l.employee.id, l.type
     """)
-    int sumApprovedDaysBetween(Long employeeId, LocalDate yearStart, LocalDate yearEnd);
+    List<ApprovedDaysRow> sumApprovedDaysGrouped(LocalDate yearStart, LocalDate yearEnd);
 
-    // ---- Listing helpers (fetch employee+approver to avoid lazy serialization) ----
-    @EntityGraph(attributePaths = {"employee", "approver"})
-    Page<LeaveRequest> findAllByStatusOrderByCreatedAtDesc(LeaveStatus status, Pageable pageable);
+    // ---- Year-end carry-forward: the same aggregate for one employee id chunk ----
+    @Query("""
+      select l.employee.id as employeeId, l.type as type, coalesce(sum(l.days),0) as days
+      from LeaveRequest l
+      where l.status = com.example.Leave_management_system.model.LeaveStatus.APPROVED
+        and l.startDate >= :yearStart and l.startDate <= :yearEnd
+        and l.employee.id > :afterId and l.employee.id <= :toId
+      group by l.employee.id, l.type
+    """)
+    List<ApprovedDaysRow> sumApprovedDaysGroupedForRange(LocalDate yearStart, LocalDate yearEnd, Long afterId, Long toId);
 
-    @EntityGraph(attributePaths = {"employee", "approver"})
-    Page<LeaveRequest> findAllByEmployee_IdOrderByCreatedAtDesc(Long employeeId, Pageable pageable);
+    // ---- Bulk decisions: lock the whole batch up front (id order avoids deadlocks) ----
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from LeaveRequest l where l.id in :ids order by l.id")
+    List<LeaveRequest> findAllForUpdate(Collection<Long> ids);
 
-    @EntityGraph(attributePaths = {"employee", "approver"})
-    Page<LeaveRequest> findAllByEmployee_IdAndStatusOrderByCreatedAtDesc(Long employeeId, LeaveStatus status, Pageable pageable);
+    // ---- HR work queue: oldest unclaimed PENDING leaves; rows locked by a concurrent claim are skipped ----
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")) // SKIP LOCKED
+    @Query("""
+      select l from LeaveRequest l
+      where l.status = com.example.Leave_management_system.model.LeaveStatus.PENDING
+        and l.employee.id <> :reviewerId
+        and (l.claimExpiresAt is null or l.claimExpiresAt < :now or l.claimedBy = :reviewerId)
+      order by l.createdAt, l.id
+    """)
+    List<LeaveRequest> lockClaimable(Long reviewerId, LocalDateTime now, Pageable pageable);
+
+    // bulk update: a claim is not a modification, so @Version is left alone
+    @Modifying(clearAutomatically = true)
+    @Query("update LeaveRequest l set l.claimedBy = :reviewerId, l.claimExpiresAt = :until where l.id in :ids")
+    int claim(Collection<Long> ids, Long reviewerId, LocalDateTime until);
+
+    // ---- Archival: a batch of closed leaves that ended before the cutoff, locked for the move ----
+    // no ORDER BY: the (status, endDate) range stops at the limit instead of sorting every old row
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")) // SKIP LOCKED
+    @Query("""
+      select l from LeaveRequest l
+      where l.status in :statuses and l.endDate < :cutoff
+    """)
+    List<LeaveRequest> lockArchivable(Collection<LeaveStatus> statuses, LocalDate cutoff, Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from LeaveRequest l where l.id in :ids")
+    int deleteAllByIdIn(Collection<Long> ids);
+
+    // ---- Analytics recompute: one grouped scan per department partition ----
+    interface UsageRow {
+        LeaveType getType();
+        LeaveStatus getStatus();
+        Integer getYear();
+        Integer getMonth();
+        Long getCount();
+        Long getDays();
+    }
+
+    @Query("""
+      select l.type as type, l.status as status,
+             year(l.startDate) as year, month(l.startDate) as month,
+             count(l) as count, coalesce(sum(l.days),0) as days
+      from LeaveRequest l join l.employee e
+      where e.department = :department
+      group by l.type, l.status, year(l.startDate), month(l.startDate)
+    """)
+    List<UsageRow> aggregateUsageByDepartment(String department);
+
+    // ---- Department calendar warm-up: blocking leaves ending on/after a horizon ----
+    interface CalendarRow {
+        Long getEmployeeId();
+        String getEmployeeName();
+        String getDepartment();
+        LeaveStatus getStatus();
+        LocalDate getStartDate();
+        LocalDate getEndDate();
+    }
+
+    @Query("""
+      select e.id as employeeId, e.name as employeeName, e.department as department,
+             l.status as status, l.startDate as startDate, l.endDate as endDate
+      from LeaveRequest l join l.employee e
+      where l.status in :statuses and l.endDate >= :horizon
+    """)
+    List<CalendarRow> findCalendarRows(Collection<LeaveStatus> statuses, LocalDate horizon);
+
+    // calendar with the index disabled: one department's leaves touching [from, to]
+    @Query("""
+      select e.id as employeeId, e.name as employeeName, e.department as department,
+             l.status as status, l.startDate as startDate, l.endDate as endDate
+      from LeaveRequest l join l.employee e
+      where e.department = :department and l.status in :statuses
+        and l.startDate <= :to and l.endDate >= :from
+    """)
+    List<CalendarRow> findCalendarRowsByDepartment(String department, Collection<LeaveStatus> statuses,
+                                                   LocalDate from, LocalDate to);
+
+    // ---- Read paths: LeaveDto constructor projections, no managed entities / dirty-check snapshots ----
+    String DTO_SELECT = """
+      select new com.example.Leave_management_system.dto.LeaveDto(
+          l.id, e.id, e.name, e.department, l.type, l.status, l.days,
+          l.startDate, l.endDate, l.reason, a.id, a.name, l.decisionNote, l.createdAt, l.updatedAt)
+      from LeaveRequest l join l.employee e left join l.approver a
+    """;
+    String KEYSET_AFTER = " (l.createdAt < :createdAt or (l.createdAt = :createdAt and l.id < :id)) ";
+    String NEWEST_FIRST = " order by l.createdAt desc, l.id desc";
+
+    @Query(DTO_SELECT + " where l.id = :id")
+    Optional<LeaveDto> findDtoById(Long id);
+
+    // ETag of GET /leaves/{id}: PK lookup of the version only
+    @Query("select l.version from LeaveRequest l where l.id = :id")
+    Optional<Integer> findVersionById(Long id);
+
+    @Query(DTO_SELECT + " where l.id in :ids order by l.createdAt, l.id")
+    List<LeaveDto> findDtosByIds(Collection<Long> ids);
+
+    @Query(value = DTO_SELECT + NEWEST_FIRST,
+           countQuery = "select count(l) from LeaveRequest l")
+    Page<LeaveDto> findDtoPage(Pageable pageable);
+
+    @Query(value = DTO_SELECT + " where l.status = :status" + NEWEST_FIRST,
+           countQuery = "select count(l) from LeaveRequest l where l.status = :status")
+    Page<LeaveDto> findDtoPageByStatus(LeaveStatus status, Pageable pageable);
+
+    @Query(value = DTO_SELECT + " where l.employee.id = :employeeId" + NEWEST_FIRST,
+           countQuery = "select count(l) from LeaveRequest l where l.employee.id = :employeeId")
+    Page<LeaveDto> findDtoPageByEmployee(Long employeeId, Pageable pageable);
+
+    @Query(value = DTO_SELECT + " where l.employee.id = :employeeId and l.status = :status" + NEWEST_FIRST,
+           countQuery = "select count(l) from LeaveRequest l where l.employee.id = :employeeId and l.status = :status")
+    Page<LeaveDto> findDtoPageByEmployeeAndStatus(Long employeeId, LeaveStatus status, Pageable pageable);
+
+    // ---- Keyset (cursor) listing: rows strictly after (createdAt, id), newest first, no COUNT ----
+    @Query(DTO_SELECT + " where" + KEYSET_AFTER + NEWEST_FIRST)
+    Slice<LeaveDto> findDtoSliceAfter(LocalDateTime createdAt, Long id, Pageable pageable);
+
+    @Query(DTO_SELECT + " where l.status = :status and" + KEYSET_AFTER + NEWEST_FIRST)
+    Slice<LeaveDto> findDtoSliceByStatusAfter(LeaveStatus status, LocalDateTime createdAt, Long id, Pageable pageable);
+
+    @Query(DTO_SELECT + " where l.employee.id = :employeeId and" + KEYSET_AFTER + NEWEST_FIRST)
+    Slice<LeaveDto> findDtoSliceByEmployeeAfter(Long employeeId, LocalDateTime createdAt, Long id, Pageable pageable);
+
+    @Query(DTO_SELECT + " where l.employee.id = :employeeId and l.status = :status and" + KEYSET_AFTER + NEWEST_FIRST)
+    Slice<LeaveDto> findDtoSliceByEmployeeAndStatusAfter(Long employeeId, LeaveStatus status,
+                                                        LocalDateTime createdAt, Long id, Pageable pageable);
+
+    // ---- Export: forward-only stream, optional filters, rows overlapping [from, to] ----
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(DTO_SELECT + """
+      where (:status is null or l.status = :status)
+        and (:employeeId is null or l.employee.id = :employeeId)
+        and (:from is null or l.endDate >= :from)
+        and (:to is null or l.startDate <= :to)
+      order by l.id
+    """)
+    java.util.stream.Stream<LeaveDto> streamDtosForExport(LeaveStatus status, Long employeeId, LocalDate from, LocalDate to);
+
+    // ---- Search index warm-up: the text columns of every leave, forward-only, in id order ----
+    interface SearchRow {
+        Long getId();
+        String getEmployeeName();
+        String getReason();
+        String getDecisionNote();
+    }
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+      select l.id as id, e.name as employeeName, l.reason as reason, l.decisionNote as decisionNote
+      from LeaveRequest l join l.employee e
+      order by l.id
+    """)
+    java.util.stream.Stream<SearchRow> streamSearchRows();
+
+    // search with the index disabled: substring match, newest first (scans the table);
+    // pattern has %, _ and \ from the user's text escaped with \
+    @Query(value = DTO_SELECT + """
+      where lower(l.reason) like :pattern escape '\\' or lower(l.decisionNote) like :pattern escape '\\'
+        or lower(e.name) like :pattern escape '\\'
+    """ + NEWEST_FIRST,
+           countQuery = """
+      select count(l) from LeaveRequest l join l.employee e
+      where lower(l.reason) like :pattern escape '\\' or lower(l.decisionNote) like :pattern escape '\\'
+        or lower(e.name) like :pattern escape '\\'
+    """)
+    Page<LeaveDto> findDtoPageMatching(String pattern, Pageable pageable);
 
+    // entity page with employee+approver fetched; kept for toDto benchmarks / write paths
     @Override
     @EntityGraph(attributePaths = {"employee", "approver"})
     Page<LeaveRequest> findAll(Pageable pageable);
@@ -0,0 +1,68 @@
+package com.example.Leave_management_system.Repository;
+
+import com.example.Leave_management_system.model.LeaveUsageRollup;
+import com.example.Leave_management_system.model.LeaveUsageRollupId;
+import com.example.Leave_management_system.model.LeaveUsageRollupLock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface LeaveUsageRollupRepository extends JpaRepository<LeaveUsageRollup, LeaveUsageRollupId> {
+
+    /**
+     * Atomic increment-or-create. Concurrent transitions on the same bucket serialize on
+     * the row instead of racing a read-modify-write.
+     */
+    @Modifying
+    @Query(value = """
+      insert into leave_usage_rollups
+        (department, leave_type, usage_month, requested_count, pending_count, approved_count, approved_days, rejected_count, updated_at)
+      values (:department, :type, :month, :requested, :pending, :approved, :approvedDays, :rejected, current_timestamp)
+      on duplicate key update
+        requested_count = requested_count + :requested,
+        pending_count   = pending_count + :pending,
+        approved_count  = approved_count + :approved,
+        approved_days   = approved_days + :approvedDays,
+        rejected_count  = rejected_count + :rejected,
+        updated_at      = current_timestamp
+    """, nativeQuery = true)
+    void increment(String department, String type, int month,
+                   int requested, int pending, int approved, int approvedDays, int rejected);
+
+    @Query("""
+      select r from LeaveUsageRollup r
+      where r.id.month between :fromMonth and :toMonth
+      order by r.id.month, r.id.department, r.id.type
+    """)
+    List<LeaveUsageRollup> findMonthRange(Integer fromMonth, Integer toMonth);
+
+    @Query("""
+      select r from LeaveUsageRollup r
+      where r.id.department = :department and r.id.month between :fromMonth and :toMonth
+      order by r.id.month, r.id.type
+    """)
+    List<LeaveUsageRollup> findMonthRangeByDepartment(String department, Integer fromMonth, Integer toMonth);
+
+    @Modifying
+    @Query("delete from LeaveUsageRollup r where r.id.department = :department")
+    int deleteByDepartment(String department);
+
+    // ---- Per-department lock row: increments share it, recompute holds it exclusively ----
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select l from LeaveUsageRollupLock l where l.department = :department")
+    Optional<LeaveUsageRollupLock> lockDepartmentShared(String department);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from LeaveUsageRollupLock l where l.department = :department")
+    Optional<LeaveUsageRollupLock> lockDepartmentExclusive(String department);
+
+    // first use of a department; a concurrent creator makes this a no-op
+    @Modifying
+    @Query(value = "insert ignore into leave_usage_rollup_locks (department) values (:department)", nativeQuery = true)
+    void createDepartmentLock(String department);
+}
@@ -0,0 +1,36 @@
+package com.example.Leave_management_system.Repository;
+
+import com.example.Leave_management_system.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // ---- Dispatcher: oldest due rows; rows locked by another node are skipped, not waited on ----
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")) // SKIP LOCKED
+    @Query("""
+      select o from OutboxEvent o
+      where o.dispatchedAt is null and o.nextAttemptAt <= :now
+      order by o.id
+    """)
+    List<OutboxEvent> lockDueBatch(LocalDateTime now, Pageable pageable);
+
+    // ---- Dispatcher: rows still under this claim's lease, after every sink accepted them ----
+    @Modifying
+    @Query("""
+      update OutboxEvent o set o.dispatchedAt = :now
+      where o.id in :ids and o.nextAttemptAt = :leaseUntil and o.dispatchedAt is null
+    """)
+    int markDispatched(Collection<Long> ids, LocalDateTime leaseUntil, LocalDateTime now);
+
+    @Modifying
+    @Query("delete from OutboxEvent o where o.dispatchedAt < :before")
+    int deleteDispatchedBefore(LocalDateTime before);
+}
@@ -2,14 +2,37 @@
 package com.example.Leave_management_system.controller;
 
 import com.example.Leave_management_system.dto.*;
+import com.example.Leave_management_system.exception.BadRequestException;
+import com.example.Leave_management_system.exception.ForbiddenException;
 import com.example.Leave_management_system.model.Employee;
+import com.example.Leave_management_system.model.Holiday;
+import com.example.Leave_management_system.security.AuthenticatedEmployee;
+import com.example.Leave_management_system.service.AccrualService;
+import com.example.Leave_management_system.service.BalanceLedgerService;
+import com.example.Leave_management_system.service.CarryForwardService;
+import com.example.Leave_management_system.service.DepartmentCalendarIndex;
 import com.example.Leave_management_system.service.EmployeeService;
+import com.example.Leave_management_system.service.LeaveAnalyticsService;
+import com.example.Leave_management_system.service.LeaveArchiveService;
+import com.example.Leave_management_system.service.LeaveExporter;
 import com.example.Leave_management_system.service.LeaveService;
+import com.example.Leave_management_system.service.WorkingDayCalendar;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api")
@@ -18,6 +41,14 @@ public class ApiController {
 
     private final EmployeeService employeeService;
     private final LeaveService leaveService;
+    private final BalanceLedgerService ledgerService;
+    private final LeaveExporter leaveExporter;
+    private final DepartmentCalendarIndex calendarIndex;
+    private final LeaveAnalyticsService analyticsService;
+    private final WorkingDayCalendar workingDayCalendar;
+    private final AccrualService accrualService;
+    private final CarryForwardService carryForwardService;
+    private final LeaveArchiveService archiveService;
 
     // 1) Add employee
     @PostMapping("/employees")
@@ -29,9 +60,13 @@ public class ApiController {
     // 2) Apply for leave
     @PostMapping("/leaves/apply")
     @PreAuthorize("hasAuthority('EMPLOYEE')")
-    public ResponseEntity<?> apply(@Valid @RequestBody ApplyLeaveRequest req){
-        Long id = leaveService.apply(req);
-        return ResponseEntity.ok(java.util.Map.of("leaveId", id, "status", "PENDING"));
+    //    optional Idempotency-Key header: a retry with the same key returns the original leaveId
+    public ResponseEntity<?> apply(@Valid @RequestBody ApplyLeaveRequest req,
+                                   @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey){
+        var result = leaveService.apply(req, idempotencyKey);
+        return ResponseEntity.ok()
+                .header("Idempotent-Replayed", String.valueOf(result.replayed()))
+                .body(java.util.Map.of("leaveId", result.leaveId(), "status", "PENDING"));
     }
 
     // 3) Approve leave
@@ -50,44 +85,236 @@ public class ApiController {
         return ResponseEntity.ok(java.util.Map.of("leaveId", id, "status", "REJECTED"));
     }
 
+    // 4b) Bulk approve/reject; one result per item, failures don't abort the batch
+    @PostMapping("/leaves/decisions")
+    @PreAuthorize("hasAuthority('HR')")
+    public ResponseEntity<BatchDecisionResponse> decide(@Valid @RequestBody BatchDecisionRequest req){
+        return ResponseEntity.ok(leaveService.decideBatch(req));
+    }
+
+    // 4c) HR work queue: claim up to n PENDING leaves no other reviewer holds
+    //    /api/leaves/queue/claim?reviewerId=3&n=20
+    @PostMapping("/leaves/queue/claim")
+    @PreAuthorize("hasAuthority('HR')")
+    public ResponseEntity<LeaveClaimResponse> claim(@RequestParam Long reviewerId,
+                                                    @RequestParam(defaultValue = "20") int n){
+        return ResponseEntity.ok(leaveService.claim(reviewerId, n));
+    }
+
     // 5) Fetch leave balance for employees
     @GetMapping("/employees/{id}/balance")
     @PreAuthorize("hasAuthority('EMPLOYEE')")
-    public ResponseEntity<BalanceResponse> balance(@PathVariable Long id){
-        return ResponseEntity.ok(leaveService.balance(id));
+    //    conditional: If-None-Match with the last ETag -> 304, answered without a query
+    public ResponseEntity<BalanceResponse> balance(@PathVariable Long id, WebRequest request){
+        var etag = leaveService.balanceETag(id); // before the balance itself
+        if (etag == null) return ResponseEntity.ok(leaveService.balance(id));
+        if (request.checkNotModified(etag)) return null; // 304 already written
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(leaveService.balance(id));
     }
 
     // 6) Get leave by ID (DTO)
     @GetMapping("/leaves/{id}")
     @PreAuthorize("hasAnyAuthority('EMPLOYEE','HR')")
-    public ResponseEntity<LeaveDto> getLeave(@PathVariable Long id) {
-        return ResponseEntity.ok(leaveService.getDtoById(id));
+    //    conditional: If-None-Match with the last ETag -> 304 after a version-only lookup
+    //    archived=true also looks in the archive when the leave is not in the hot table
+    public ResponseEntity<LeaveDto> getLeave(@PathVariable Long id,
+                                             @RequestParam(defaultValue = "false") boolean archived,
+                                             WebRequest request) {
+        var etag = leaveService.leaveETag(id, archived); // before the DTO itself
+        if (request.checkNotModified(etag)) return null; // 304 already written
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(leaveService.getDtoById(id, archived));
     }
 
     // 7) List leaves (HR view or employee view via filters)
     //    /api/leaves?status=PENDING&page=0&size=20
     //    /api/leaves?employeeId=1
     //    /api/leaves?employeeId=1&status=APPROVED
+    //    cursor mode (no total, constant cost per page): /api/leaves/all?cursor=&size=50
+    //    then follow nextCursor: /api/leaves/all?cursor=<nextCursor>&size=50
+    //    archived history (closed leaves past the horizon, page mode only): /api/leaves/all?archived=true
     @GetMapping("/leaves/all")
     @PreAuthorize("hasAuthority('HR')")
-    public ResponseEntity<PageResponse<LeaveDto>> listLeaves(
+    public ResponseEntity<?> listLeaves(
             @RequestParam(required = false) String status,
             @RequestParam(required = false) Long employeeId,
             @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean archived
+    ) {
+        if (cursor != null && archived) throw new BadRequestException("cursor paging is not available for archived leaves");
+        if (cursor != null)
+            return ResponseEntity.ok(leaveService.listLeavesByCursor(status, employeeId, cursor, size));
+        return ResponseEntity.ok(leaveService.listLeaves(status, employeeId, page, size, archived));
+    }
+
+    // 7b) Streaming export for payroll/audit (constant memory, no paging)
+    //    /api/leaves/export?format=csv&status=APPROVED&from=2025-01-01&to=2025-12-31
+    @GetMapping("/leaves/export")
+    @PreAuthorize("hasAuthority('HR')")
+    public ResponseEntity<StreamingResponseBody> exportLeaves(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long employeeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        // parsed here, not in the body: once streaming starts the 200 is committed
+        var fmt = LeaveExporter.Format.parse(format);
+        var query = LeaveService.exportQuery(status, employeeId, from, to);
+        StreamingResponseBody body = out -> leaveExporter.write(fmt, query, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(fmt.contentType))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"leaves." + fmt.name().toLowerCase() + "\"")
+                .body(body);
+    }
+
+    // 7c) Move closed leaves past the archive horizon to leave_requests_archive (also runs nightly)
+    @PostMapping("/leaves/archive")
+    @PreAuthorize("hasAuthority('HR')")
+    public ResponseEntity<ArchiveRunResponse> archiveLeaves() {
+        return ResponseEntity.ok(archiveService.archive());
+    }
+
+    // 7d) Full-text search over reason, decision note and employee name, best match first
+    //    /api/leaves/search?q=medical&page=0&size=20
+    @GetMapping("/leaves/search")
+    @PreAuthorize("hasAuthority('HR')")
+    public ResponseEntity<PageResponse<LeaveDto>> searchLeaves(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size
     ) {
-        return ResponseEntity.ok(leaveService.listLeaves(status, employeeId, page, size));
+        return ResponseEntity.ok(leaveService.searchLeaves(q, page, size));
     }
 
     // 8) Employee-specific history shortcut
     @GetMapping("/employees/{id}/leaves")
     @PreAuthorize("hasAuthority('EMPLOYEE')")
-    public ResponseEntity<PageResponse<LeaveDto>> listEmployeeLeaves(
+    public ResponseEntity<?> listEmployeeLeaves(
             @PathVariable Long id,
             @RequestParam(required = false) String status,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean archived
+    ) {
+        if (cursor != null && archived) throw new BadRequestException("cursor paging is not available for archived leaves");
+        if (cursor != null)
+            return ResponseEntity.ok(leaveService.listLeavesByCursor(status, id, cursor, size));
+        return ResponseEntity.ok(leaveService.listLeaves(status, id, page, size, archived));
+    }
+
+    // 9) Balance ledger: report drift vs leave_requests, or rebuild it
+    //    /api/ledger/verify?year=2025
+    @GetMapping("/ledger/verify")
+    @PreAuthorize("hasAuthority('HR')")
+    public ResponseEntity<LedgerDriftResponse> verifyLedger(@RequestParam int year) {
+        return ResponseEntity.ok(ledgerService.verify(year));
+    }
+
+    @PostMapping("/ledger/rebuild")
+    @PreAuthorize("hasAuthority('HR')")
+    public ResponseEntity<LedgerDriftResponse> rebuildLedger(@RequestParam int year) {
+        return ResponseEntity.ok(ledgerService.rebuild(year));
+    }
+
+    // 9b) Year-end closing: carry unused days (up to the cap) into year+1, lapse the rest
+    //    /api/ledger/carry-forward?year=2025&dryRun=true
+    @PostMapping("/ledger/carry-forward")
+    @PreAuthorize("hasAuthority('HR')")
+    public ResponseEntity<CarryForwardResponse> carryForward(@RequestParam int year,
+                                                             @RequestParam(defaultValue = "false") boolean dryRun) {
+        return ResponseEntity.ok(carryForwardService.run(year, dryRun));
+    }
+
+    // 10) Department "who's out" calendar, served from the in-memory day index
+    //    /api/departments/Engineering/calendar?from=2025-12-01&to=2026-02-28
+    //    HR sees every department, employees only their own
+    @GetMapping("/departments/{dept}/calendar")
+    @PreAuthorize("hasAnyAuthority('EMPLOYEE','HR')")
+    public ResponseEntity<DepartmentCalendarResponse> departmentCalendar(
+            @PathVariable String dept,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication auth
+    ) {
+        boolean hr = auth.getAuthorities().stream().anyMatch(a -> "HR".equals(a.getAuthority()));
+        if (!hr && !dept.equals(employeeService.getOrThrow(callerId(auth)).getDepartment()))
+            throw new ForbiddenException("only your own department's calendar");
+        return ResponseEntity.ok(calendarIndex.calendar(dept, from, to));
+    }
+
+    // 11) Leave usage by department x type x month (served from rollup tables)
+    //    /api/analytics/leave-usage?fromMonth=2025-01&toMonth=2025-12&department=Engineering
+    @GetMapping("/analytics/leave-usage")
+    @PreAuthorize("hasAuthority('HR')")
+    public ResponseEntity<LeaveUsageResponse> leaveUsage(
+            @RequestParam String fromMonth,
+            @RequestParam String toMonth,
+            @RequestParam(required = false) String department
     ) {
-        return ResponseEntity.ok(leaveService.listLeaves(status, id, page, size));
+        return ResponseEntity.ok(analyticsService.usage(fromMonth, toMonth, department));
+    }
+
+    @PostMapping("/analytics/leave-usage/recompute")
+    @PreAuthorize("hasAuthority('HR')")
+    public ResponseEntity<?> recomputeLeaveUsage() {
+        return ResponseEntity.ok(java.util.Map.of("rowsByDepartment", analyticsService.recompute()));
+    }
+
+    // 12) Holiday calendars ("default", or one named after a department); used for working-day counts
+    //    /api/holidays?calendar=Engineering&year=2025
+    @GetMapping("/holidays")
+    @PreAuthorize("hasAnyAuthority('EMPLOYEE','HR')")
+    public ResponseEntity<List<Holiday>> holidays(
+            @RequestParam(required = false) String calendar,
+            @RequestParam int year
+    ) {
+        return ResponseEntity.ok(workingDayCalendar.list(calendar, year));
+    }
+
+    @PostMapping("/holidays")
+    @PreAuthorize("hasAuthority('HR')")
+    public ResponseEntity<Holiday> addHoliday(@Valid @RequestBody HolidayRequest req) {
+        return ResponseEntity.ok(workingDayCalendar.add(req));
+    }
+
+    @DeleteMapping("/holidays/{id}")
+    @PreAuthorize("hasAuthority('HR')")
+    public ResponseEntity<?> removeHoliday(@PathVariable Long id) {
+        workingDayCalendar.remove(id);
+        return ResponseEntity.ok(java.util.Map.of("holidayId", id, "status", "DELETED"));
+    }
+
+    // 13) Monthly accrual: run (or resume) a period, or read its checkpoint progress
+    //    /api/accruals/run?period=2025-03
+    @PostMapping("/accruals/run")
+    @PreAuthorize("hasAuthority('HR')")
+    public ResponseEntity<AccrualRunResponse> runAccrual(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth period
+    ) {
+        return ResponseEntity.ok(accrualService.run(period));
+    }
+
+    @GetMapping("/accruals/status")
+    @PreAuthorize("hasAuthority('HR')")
+    public ResponseEntity<AccrualRunResponse> accrualStatus(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth period
+    ) {
+        return ResponseEntity.ok(accrualService.status(period));
+    }
+
+    private static Long callerId(Authentication auth) {
+        if (auth.getPrincipal() instanceof AuthenticatedEmployee e) return e.id();
+        if (auth.getPrincipal() instanceof Employee e) return e.getId();
+        throw new ForbiddenException("unknown principal");
     }
-}
\ No newline at end of file
+}
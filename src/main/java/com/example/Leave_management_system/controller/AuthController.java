@@ -3,12 +3,16 @@ package com.example.Leave_management_system.controller;
 
 import com.example.Leave_management_system.dto.AuthRequest;
 import com.example.Leave_management_system.dto.AuthResponse;
+import com.example.Leave_management_system.exception.BadRequestException;
 import com.example.Leave_management_system.model.Employee;
 import com.example.Leave_management_system.model.Role;
 import com.example.Leave_management_system.Repository.EmployeeRepository;
 import com.example.Leave_management_system.security.JwtUtil;
+import com.example.Leave_management_system.security.TokenRevocationService;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,6 +24,7 @@ public class AuthController {
     private final EmployeeRepository employeeRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final TokenRevocationService revocations;
 
     @PostMapping("/register")
     public String register(@RequestBody Employee emp){
@@ -49,4 +54,25 @@ public class AuthController {
 
     return ResponseEntity.ok(new AuthResponse(token, emp.isHr() ? "HR" : "EMPLOYEE"));
     }
+
+    // Revoke the calling token (stateless tokens otherwise stay valid until exp)
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ") || authHeader.length() == 7)
+            throw new BadRequestException("Authorization: Bearer <token> required");
+        try {
+            revocations.revoke(jwtUtil.verify(authHeader.substring(7)));
+        } catch (JwtException ex) {
+            throw new BadRequestException("invalid token");
+        }
+        return ResponseEntity.ok(java.util.Map.of("status", "LOGGED_OUT"));
+    }
+
+    // Revoke every token issued so far to one employee (e.g. role change, offboarding)
+    @PostMapping("/revoke/{employeeId}")
+    @PreAuthorize("hasAuthority('HR')")
+    public ResponseEntity<?> revokeAll(@PathVariable Long employeeId) {
+        revocations.revokeAll(employeeId);
+        return ResponseEntity.ok(java.util.Map.of("employeeId", employeeId, "status", "REVOKED"));
+    }
 }
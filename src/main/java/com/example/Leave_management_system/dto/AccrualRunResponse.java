@@ -0,0 +1,15 @@
+package com.example.Leave_management_system.dto;
+
+import lombok.*;
+
+/** Progress of one accrual period, summed over its partition checkpoints. */
+@Data @Builder @NoArgsConstructor @AllArgsConstructor
+public class AccrualRunResponse {
+    private String period;              // yyyy-MM
+    private int partitions;
+    private int completedPartitions;
+    private boolean complete;
+    private long employeesProcessed;    // all runs of the period so far
+    private long rowsWritten;
+    private long elapsedMs;             // this call; 0 for a status read
+}
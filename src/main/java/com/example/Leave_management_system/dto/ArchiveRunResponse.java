@@ -0,0 +1,15 @@
+package com.example.Leave_management_system.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+/** One archival pass: closed leaves ending before cutoff moved to leave_requests_archive. */
+@Data @Builder @NoArgsConstructor @AllArgsConstructor
+public class ArchiveRunResponse {
+    private LocalDate cutoff;
+    private long archived;
+    private int batches;
+    private boolean complete;   // false when the pass hit max-batches; the next run continues
+    private long elapsedMs;
+}
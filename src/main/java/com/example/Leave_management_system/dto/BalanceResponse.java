@@ -4,7 +4,8 @@ import lombok.*;
 @Data @AllArgsConstructor
 public class BalanceResponse {
     private Long employeeId;
-    private int allocation;
+    private int allocation;             // includes carriedForward
+    private int carriedForward;         // opening balance carried from last year
     private int approvedDaysThisYear;
     private int remaining;
 }
@@ -0,0 +1,25 @@
+package com.example.Leave_management_system.dto;
+
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BatchDecisionRequest {
+    @NotNull private Long approverId;   // approver must be HR
+
+    @NotEmpty @Size(max = 500)
+    private List<@Valid Item> items;
+
+    public enum Decision { APPROVE, REJECT }
+
+    @Data
+    public static class Item {
+        @NotNull private Long leaveId;
+        @NotNull private Decision decision;
+        @NotBlank private String note;
+        private Integer version; // optional: expected LeaveRequest.version, CONFLICT if stale
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.Leave_management_system.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data @Builder @NoArgsConstructor @AllArgsConstructor
+public class BatchDecisionResponse {
+    private int approved;
+    private int rejected;
+    private int failed;
+    private List<ItemResult> results; // same order as the request items
+
+    public enum Outcome { APPROVED, REJECTED, NOT_FOUND, CONFLICT, FORBIDDEN }
+
+    @Data @AllArgsConstructor @NoArgsConstructor
+    public static class ItemResult {
+        private Long leaveId;
+        private Outcome outcome;
+        private String message; // null on success
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.Leave_management_system.dto;
+
+import lombok.*;
+
+/** Year-end closing: what was (or, on a dry run, would be) carried into toYear and what lapsed. */
+@Data @Builder @NoArgsConstructor @AllArgsConstructor
+public class CarryForwardResponse {
+    private int fromYear;
+    private int toYear;
+    private boolean dryRun;
+    private int capDays;
+    private long employees;         // employed by the end of fromYear
+    private long carriedDays;
+    private long lapsedDays;
+    private long employeesLapsing;  // closing balance above the cap
+    private long elapsedMs;
+    private long employeesPerSecond;
+}
@@ -0,0 +1,13 @@
+package com.example.Leave_management_system.dto;
+
+import lombok.*;
+import java.util.List;
+
+/** Keyset page: no total count; pass nextCursor back as ?cursor= to continue. */
+@Data @Builder @NoArgsConstructor @AllArgsConstructor
+public class CursorPageResponse<T> {
+    private List<T> items;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor; // null on the last page
+}
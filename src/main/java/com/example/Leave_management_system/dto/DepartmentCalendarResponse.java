@@ -0,0 +1,22 @@
+package com.example.Leave_management_system.dto;
+
+import lombok.*;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data @Builder @NoArgsConstructor @AllArgsConstructor
+public class DepartmentCalendarResponse {
+    private String department;
+    private LocalDate from;
+    private LocalDate to;
+    private Map<Long, String> employees; // id -> name for everyone listed below
+    private List<Day> days;               // one entry per date in [from, to]
+
+    @Data @AllArgsConstructor @NoArgsConstructor
+    public static class Day {
+        private LocalDate date;
+        private List<Long> approved;
+        private List<Long> pending;
+    }
+}
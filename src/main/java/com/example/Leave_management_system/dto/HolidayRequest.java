@@ -0,0 +1,14 @@
+package com.example.Leave_management_system.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class HolidayRequest {
+    @Size(max = 100) private String calendar; // department name; blank = "default"
+    @NotNull private LocalDate date;
+    @Size(max = 200) private String name;
+}
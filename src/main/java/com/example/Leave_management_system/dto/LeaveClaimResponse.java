@@ -0,0 +1,14 @@
+package com.example.Leave_management_system.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Leaves handed to one reviewer; nobody else can decide them until claimedUntil. */
+@Data @Builder @NoArgsConstructor @AllArgsConstructor
+public class LeaveClaimResponse {
+    private Long reviewerId;
+    private LocalDateTime claimedUntil;
+    private List<LeaveDto> items; // oldest first
+}
@@ -1,6 +1,8 @@
 package com.example.Leave_management_system.dto;
 
 
+import com.example.Leave_management_system.model.LeaveStatus;
+import com.example.Leave_management_system.model.LeaveType;
 import lombok.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -28,5 +30,15 @@ public class LeaveDto {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
-
+    /** JPQL constructor projection (LeaveRequestRepository.DTO_SELECT); enums mapped to names here. */
+    public LeaveDto(Long id, Long employeeId, String employeeName, String department,
+                    LeaveType type, LeaveStatus status, Integer days,
+                    LocalDate startDate, LocalDate endDate, String reason,
+                    Long approverId, String approverName, String decisionNote,
+                    LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, employeeId, employeeName, department,
+                type != null ? type.name() : null, status != null ? status.name() : null,
+                days != null ? days : 0, startDate, endDate, reason,
+                approverId, approverName, decisionNote, createdAt, updatedAt);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.example.Leave_management_system.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data @Builder @NoArgsConstructor @AllArgsConstructor
+public class LeaveUsageResponse {
+    private String fromMonth;   // yyyy-MM
+    private String toMonth;
+    private List<Row> rows;
+
+    @Data @AllArgsConstructor @NoArgsConstructor
+    public static class Row {
+        private String department;
+        private String type;
+        private String month;   // yyyy-MM
+        private int requested;
+        private int pending;
+        private int approved;
+        private int approvedDays;
+        private int rejected;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.Leave_management_system.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data @Builder @NoArgsConstructor @AllArgsConstructor
+public class LedgerDriftResponse {
+    private int year;
+    private boolean repaired;        // true when produced by a rebuild
+    private int rowsChecked;
+    private List<Drift> drifts;
+
+    @Data @AllArgsConstructor @NoArgsConstructor
+    public static class Drift {
+        private Long employeeId;
+        private String type;
+        private int ledgerDays;      // what leave_balances said
+        private int actualDays;      // recomputed from leave_requests
+    }
+}
@@ -2,6 +2,8 @@ package com.example.Leave_management_system.exception;
 // src/main/java/com/example/Leave_management_system/exception/GlobalExceptionHandler.java
 
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -10,8 +12,11 @@ import java.time.LocalDateTime;
 import java.util.Map;
 
 @ControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meters;
+
     // BadRequestException -> 400
     @ExceptionHandler(BadRequestException.class)
     public ResponseEntity<?> handleBadRequest(BadRequestException ex, WebRequest request){
@@ -44,6 +49,9 @@ public class GlobalExceptionHandler {
 
     // Common builder
     private ResponseEntity<Map<String,Object>> buildResponse(Exception ex, HttpStatus status, WebRequest request){
+        meters.counter("api.exceptions",
+                "exception", ex.getClass().getSimpleName(),
+                "status", String.valueOf(status.value())).increment();
         Map<String,Object> body = Map.of(
                 "timestamp", LocalDateTime.now(),
                 "status", status.value(),
@@ -0,0 +1,22 @@
+package com.example.Leave_management_system.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts SQL statements Hibernate prepares on the current thread, so QueryCountFilter
+ * can record queries-per-request. Returns the SQL unchanged.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    static void reset() { COUNT.get()[0] = 0; }
+
+    static int current() { return COUNT.get()[0]; }
+}
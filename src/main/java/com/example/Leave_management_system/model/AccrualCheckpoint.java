@@ -0,0 +1,47 @@
+package com.example.Leave_management_system.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of one partition (a fixed employee id range) of an accrual run. Advanced in
+ * the same transaction as each chunk's inserts, so a restarted run resumes after the last
+ * committed chunk. The row is locked per chunk, which also keeps two nodes running the
+ * same period from processing the same employees.
+ */
+@Entity
+@Table(name = "accrual_checkpoints")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class AccrualCheckpoint {
+
+    @EmbeddedId
+    private AccrualCheckpointId id;
+
+    /** employee id range of the partition: (fromId, toId] */
+    @Column(nullable = false)
+    private Long fromId;
+
+    @Column(nullable = false)
+    private Long toId;
+
+    /** last employee id processed; the next chunk starts after it */
+    @Column(nullable = false)
+    private Long cursorId;
+
+    @Builder.Default
+    private boolean completed = false;
+
+    @Builder.Default
+    private Integer employeesProcessed = 0;
+
+    @Builder.Default
+    private Integer rowsWritten = 0;
+
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    @PreUpdate
+    void touch() { this.updatedAt = LocalDateTime.now(); }
+}
@@ -0,0 +1,18 @@
+package com.example.Leave_management_system.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/** Checkpoint key: (accrual period yyyymm, partition number) */
+@Embeddable
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @EqualsAndHashCode
+public class AccrualCheckpointId implements Serializable {
+
+    @Column(name = "accrual_period", nullable = false)
+    private Integer period;
+
+    @Column(name = "partition_no", nullable = false)
+    private Integer partition;
+}
@@ -0,0 +1,62 @@
+package com.example.Leave_management_system.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Cold copy of a closed (APPROVED/REJECTED) leave past the archive horizon; same id and
+ * columns as LeaveRequest. Rows are moved here by LeaveArchiveService and never change
+ * again, which keeps leave_requests and its indexes sized to recent and open leaves.
+ */
+@Entity
+@Table(name = "leave_requests_archive",
+        indexes = {
+                @Index(name="idx_lra_emp_created", columnList = "employee_id,createdAt"),
+                @Index(name="idx_lra_created", columnList = "createdAt"),
+                @Index(name="idx_lra_status_created", columnList = "status,createdAt"),
+                @Index(name="idx_lra_status_start", columnList = "status,startDate,employee_id,type,days")
+        })
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ArchivedLeave {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "employee_id", nullable = false,
+            foreignKey = @ForeignKey(name="fk_lra_employee"))
+    private Employee employee;
+
+    @Enumerated(EnumType.STRING)
+    private LeaveType type;
+
+    @Enumerated(EnumType.STRING)
+    private LeaveStatus status;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    private Integer days;
+
+    private String reason;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "approver_id",
+            foreignKey = @ForeignKey(name="fk_lra_approver"))
+    private Employee approver;
+
+    private String decisionNote;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    /** LeaveRequest.version at archive time; keeps ETags of archived leaves stable */
+    private Integer version;
+
+    private LocalDateTime archivedAt;
+}
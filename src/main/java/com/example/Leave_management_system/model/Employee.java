@@ -2,6 +2,7 @@ package com.example.Leave_management_system.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import com.example.Leave_management_system.service.EmployeeCacheInvalidator;
 import lombok.*;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -12,6 +13,7 @@ import java.util.Collection;
 import java.util.List;
 
 @Entity
+@EntityListeners(EmployeeCacheInvalidator.class)
 @Table(name = "employees", uniqueConstraints = @UniqueConstraint(name="uq_employee_email", columnNames = "email"))
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Employee implements UserDetails {
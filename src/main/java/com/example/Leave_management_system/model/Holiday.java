@@ -0,0 +1,28 @@
+package com.example.Leave_management_system.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Public holiday in one calendar. Calendar "default" applies to everyone; a calendar
+ * named after a department replaces it for that department's employees.
+ */
+@Entity
+@Table(name = "holidays",
+        uniqueConstraints = @UniqueConstraint(name = "uk_holiday_calendar_date", columnNames = {"calendar", "holiday_date"}))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class Holiday {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String calendar;
+
+    @Column(name = "holiday_date", nullable = false)
+    private LocalDate date;
+
+    private String name;
+}
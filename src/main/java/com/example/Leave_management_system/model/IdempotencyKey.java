@@ -0,0 +1,33 @@
+package com.example.Leave_management_system.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of an apply() made with an Idempotency-Key, written in the same transaction as
+ * the leave. A retry with the same key gets leaveId back until expiresAt.
+ */
+@Entity
+@Table(name = "idempotency_keys",
+        indexes = @Index(name = "idx_idem_expires", columnList = "expiresAt"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class IdempotencyKey {
+
+    @EmbeddedId
+    private IdempotencyKeyId id;
+
+    @Column(nullable = false)
+    private Long leaveId;
+
+    /** SHA-256 (hex) of the request body; a reused key with a different body is rejected */
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
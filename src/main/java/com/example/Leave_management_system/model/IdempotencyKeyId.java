@@ -0,0 +1,18 @@
+package com.example.Leave_management_system.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/** Idempotency keys are scoped per employee: (employee, client-supplied key) */
+@Embeddable
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @EqualsAndHashCode
+public class IdempotencyKeyId implements Serializable {
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Column(name = "idem_key", nullable = false, length = 100)
+    private String key;
+}
@@ -0,0 +1,27 @@
+package com.example.Leave_management_system.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Days earned by one employee for one leave type in one month. Written only by
+ * AccrualService (JDBC batches); the primary key makes every period idempotent.
+ */
+@Entity
+@Table(name = "leave_accruals")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class LeaveAccrual {
+
+    @EmbeddedId
+    private LeaveAccrualId id;
+
+    /** entitlement / 12, pro-rated in the joining month */
+    @Column(nullable = false, precision = 5, scale = 2)
+    private BigDecimal days;
+
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
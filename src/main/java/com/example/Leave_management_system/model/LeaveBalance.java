@@ -0,0 +1,40 @@
+package com.example.Leave_management_system.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+/**
+ * Materialized approved-days ledger, one row per (employee, year, type).
+ * Written in the same transaction as every APPROVED transition so balance
+ * reads are primary-key lookups instead of a SUM over leave_requests.
+ */
+@Entity
+@Table(name = "leave_balances")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class LeaveBalance {
+
+    @EmbeddedId
+    private LeaveBalanceId id;
+
+    /** total APPROVED days whose startDate falls in the year */
+    @Builder.Default
+    private Integer approvedDays = 0;
+
+    /** opening balance carried forward from the previous year (ANNUAL row only); see CarryForwardService */
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Integer carriedInDays = 0;
+
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    @Version
+    private Integer version;
+
+    @PreUpdate
+    void touch() { this.updatedAt = LocalDateTime.now(); }
+}
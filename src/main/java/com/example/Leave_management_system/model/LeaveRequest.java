@@ -11,9 +11,12 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "leave_requests",
         indexes = {
-                @Index(name="idx_lr_emp", columnList = "employee_id"),
-                @Index(name="idx_lr_status", columnList = "status"),
-                @Index(name="idx_lr_dates", columnList = "startDate,endDate")
+                @Index(name="idx_lr_emp_status_start", columnList = "employee_id,status,startDate,endDate,days"),
+                @Index(name="idx_lr_emp_created", columnList = "employee_id,createdAt"),
+                @Index(name="idx_lr_created", columnList = "createdAt"),
+                @Index(name="idx_lr_status_start", columnList = "status,startDate,employee_id,type,days"),
+                @Index(name="idx_lr_queue", columnList = "status,createdAt"),
+                @Index(name="idx_lr_archive", columnList = "status,endDate")
         })
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class LeaveRequest {
@@ -53,6 +56,11 @@ public class LeaveRequest {
 
     private String decisionNote;
 
+    /** HR work queue lease: reviewer holding this PENDING leave until claimExpiresAt */
+    private Long claimedBy;
+
+    private LocalDateTime claimExpiresAt;
+
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -0,0 +1,28 @@
+package com.example.Leave_management_system.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated leave usage per (department, type, month), maintained incrementally on
+ * every status transition so reports never GROUP BY over leave_requests.
+ */
+@Entity
+@Table(name = "leave_usage_rollups")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class LeaveUsageRollup {
+
+    @EmbeddedId
+    private LeaveUsageRollupId id;
+
+    @Builder.Default private Integer requestedCount = 0;
+    @Builder.Default private Integer pendingCount = 0;
+    @Builder.Default private Integer approvedCount = 0;
+    @Builder.Default private Integer approvedDays = 0;
+    @Builder.Default private Integer rejectedCount = 0;
+
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
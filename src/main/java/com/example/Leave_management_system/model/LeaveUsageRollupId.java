@@ -0,0 +1,22 @@
+package com.example.Leave_management_system.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/** Rollup key: department x leave type x month (yyyymm of the leave's startDate) */
+@Embeddable
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @EqualsAndHashCode
+public class LeaveUsageRollupId implements Serializable {
+
+    @Column(name = "department", nullable = false, length = 100)
+    private String department;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "leave_type", nullable = false, length = 16)
+    private LeaveType type;
+
+    @Column(name = "usage_month", nullable = false)
+    private Integer month;
+}
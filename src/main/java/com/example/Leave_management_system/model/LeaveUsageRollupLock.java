@@ -0,0 +1,22 @@
+package com.example.Leave_management_system.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Per-department lock row for leave_usage_rollups: status transitions take it shared
+ * (FOR SHARE), LeaveAnalyticsService.recompute exclusive (FOR UPDATE). generation counts
+ * recomputes, so deltas applied after commit can tell whether a recompute already saw them.
+ */
+@Entity
+@Table(name = "leave_usage_rollup_locks")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class LeaveUsageRollupLock {
+
+    @Id
+    @Column(length = 100)
+    private String department;
+
+    @Column(nullable = false)
+    private long generation;
+}
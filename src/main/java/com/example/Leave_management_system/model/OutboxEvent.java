@@ -0,0 +1,49 @@
+package com.example.Leave_management_system.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Leave status change waiting for delivery to downstream sinks. Inserted in the same
+ * transaction as the change itself; OutboxDispatcher sets dispatchedAt once every sink
+ * has accepted it.
+ */
+@Entity
+@Table(name = "outbox_events",
+        indexes = @Index(name = "idx_outbox_pending", columnList = "dispatchedAt,nextAttemptAt"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class OutboxEvent {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** LEAVE_APPLIED / LEAVE_APPROVED / LEAVE_REJECTED */
+    @Column(nullable = false, length = 32)
+    private String eventType;
+
+    @Column(nullable = false)
+    private Long leaveId;
+
+    @Column(nullable = false)
+    private Long employeeId;
+
+    /** JSON of the LeaveChangedEvent (was @Lob, which MySQL maps to a 255-byte tinytext) */
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Builder.Default
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    private LocalDateTime dispatchedAt;
+
+    @Column(length = 500)
+    private String lastError;
+}
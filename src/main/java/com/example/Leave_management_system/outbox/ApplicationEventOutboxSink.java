@@ -0,0 +1,27 @@
+package com.example.Leave_management_system.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/** Republishes each message as an application event for in-process @EventListener(OutboxMessage) consumers. */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "leave.outbox.sinks.in-process.enabled", havingValue = "true", matchIfMissing = true)
+public class ApplicationEventOutboxSink implements OutboxSink {
+
+    private final ApplicationEventPublisher events;
+
+    @Override
+    public String name() {
+        return "in-process";
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> batch) {
+        batch.forEach(events::publishEvent);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.Leave_management_system.outbox;
+
+import com.example.Leave_management_system.Repository.OutboxEventRepository;
+import com.example.Leave_management_system.model.OutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Drains outbox_events to every OutboxSink on a single scheduler thread, off the request path.
+ *
+ * Each batch is claimed in a short transaction: its rows are locked (SKIP LOCKED, so several
+ * nodes can drain concurrently) and leased by moving next_attempt_at leaseSeconds ahead,
+ * then the transaction commits. The sinks are called with no transaction or row lock held,
+ * and a second short transaction marks the rows dispatched. Both updates only touch rows
+ * whose next_attempt_at still equals this claim's lease, so a node that outlived its lease
+ * does not overwrite the claim of the node that took the rows over. A node that dies
+ * mid-batch leaves its rows to be claimed again once the lease expires.
+ *
+ * A failing sink fails the batch: its rows are pushed back with exponential backoff and
+ * draining stops until the next tick, so a slow or down sink is never hammered. A tick
+ * drains at most maxBatchesPerTick batches; anything left waits for the next one.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "leave.outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxDispatcher {
+
+    private static final long MAX_BACKOFF_SECONDS = 300;
+
+    private final OutboxEventRepository outboxRepo;
+    private final List<OutboxSink> sinks;
+    private final TransactionTemplate tx;
+    private final MeterRegistry meters;
+    private final int batchSize;
+    private final int maxBatchesPerTick;
+    private final Duration retention;
+    private final Duration lease;
+
+    private final Counter dispatched;
+    private final Timer lag;
+
+    public OutboxDispatcher(OutboxEventRepository outboxRepo,
+                            List<OutboxSink> sinks,
+                            PlatformTransactionManager txManager,
+                            MeterRegistry meters,
+                            @Value("${leave.outbox.batch-size:100}") int batchSize,
+                            @Value("${leave.outbox.max-batches-per-tick:20}") int maxBatchesPerTick,
+                            @Value("${leave.outbox.retention-hours:24}") long retentionHours,
+                            @Value("${leave.outbox.lease-seconds:60}") long leaseSeconds) {
+        this.outboxRepo = outboxRepo;
+        this.sinks = sinks;
+        this.tx = new TransactionTemplate(txManager);
+        this.meters = meters;
+        this.batchSize = batchSize;
+        this.maxBatchesPerTick = maxBatchesPerTick;
+        this.retention = Duration.ofHours(retentionHours);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.dispatched = meters.counter("leave.outbox.dispatched");
+        this.lag = Timer.builder("leave.outbox.lag")
+                .description("time from the state change commit to delivery")
+                .publishPercentileHistogram()
+                .register(meters);
+    }
+
+    @Scheduled(fixedDelayString = "${leave.outbox.poll-interval-ms:500}")
+    public void drain() {
+        for (int i = 0; i < maxBatchesPerTick; i++) {
+            int n = dispatchBatch();
+            if (n < batchSize) return; // caught up, or a sink failed
+        }
+    }
+
+    /** @return rows delivered, or -1 if a sink failed */
+    private int dispatchBatch() {
+        // millisecond precision: the lease is compared for equality after a round trip through datetime(6)
+        var leaseUntil = LocalDateTime.now().plus(lease).truncatedTo(ChronoUnit.MILLIS);
+        var rows = tx.execute(s -> claim(leaseUntil));
+        if (rows == null || rows.isEmpty()) return 0;
+
+        var batch = rows.stream().map(OutboxDispatcher::toMessage).toList();
+        var ids = rows.stream().map(OutboxEvent::getId).toList();
+        for (var sink : sinks) {
+            try {
+                sink.deliver(batch);
+            } catch (Exception ex) {
+                meters.counter("leave.outbox.failures", "sink", sink.name()).increment();
+                log.warn("outbox sink {} failed for {} events: {}", sink.name(), rows.size(), ex.toString());
+                var now = LocalDateTime.now();
+                tx.executeWithoutResult(s -> {
+                    for (var row : outboxRepo.findAllById(ids)) {
+                        if (leaseUntil.equals(row.getNextAttemptAt())) backOff(row, now, sink.name() + ": " + ex);
+                    }
+                });
+                return -1;
+            }
+        }
+        var now = LocalDateTime.now();
+        Integer marked = tx.execute(s -> outboxRepo.markDispatched(ids, leaseUntil, now));
+        if (marked == null || marked < rows.size())
+            log.warn("outbox lease expired for {} of {} delivered events; they will be delivered again",
+                    rows.size() - (marked == null ? 0 : marked), rows.size());
+        for (var row : rows) lag.record(Duration.between(row.getCreatedAt(), now));
+        dispatched.increment(rows.size());
+        return rows.size();
+    }
+
+    /** Locks the oldest due rows and leases them until leaseUntil; the caller's transaction commits the lease. */
+    private List<OutboxEvent> claim(LocalDateTime leaseUntil) {
+        var rows = outboxRepo.lockDueBatch(LocalDateTime.now(), PageRequest.of(0, batchSize));
+        for (var row : rows) row.setNextAttemptAt(leaseUntil);
+        return rows;
+    }
+
+    private static void backOff(OutboxEvent row, LocalDateTime now, String error) {
+        int attempts = row.getAttempts() + 1;
+        long delay = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(attempts, 20));
+        row.setAttempts(attempts);
+        row.setNextAttemptAt(now.plusSeconds(delay));
+        row.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+    }
+
+    @Scheduled(fixedDelayString = "${leave.outbox.purge-interval-ms:3600000}")
+    public void purgeDispatched() {
+        Integer n = tx.execute(s -> outboxRepo.deleteDispatchedBefore(LocalDateTime.now().minus(retention)));
+        if (n != null && n > 0) log.info("purged {} dispatched outbox events", n);
+    }
+
+    private static OutboxMessage toMessage(OutboxEvent e) {
+        return new OutboxMessage(e.getId(), e.getEventType(), e.getLeaveId(), e.getEmployeeId(),
+                e.getPayload(), e.getCreatedAt());
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.Leave_management_system.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+/**
+ * What sinks receive. {@code id} is stable across redeliveries, so consumers dedupe on it
+ * (delivery is at-least-once).
+ */
+public record OutboxMessage(
+        Long id,
+        String eventType,
+        Long leaveId,
+        Long employeeId,
+        @JsonRawValue String payload,
+        LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,14 @@
+package com.example.Leave_management_system.outbox;
+
+import java.util.List;
+
+/**
+ * Downstream target for outbox batches. Throwing fails the whole batch; it is retried
+ * with backoff for every sink, so implementations must tolerate duplicates.
+ */
+public interface OutboxSink {
+
+    String name();
+
+    void deliver(List<OutboxMessage> batch) throws Exception;
+}
@@ -0,0 +1,35 @@
+package com.example.Leave_management_system.outbox;
+
+import com.example.Leave_management_system.Repository.OutboxEventRepository;
+import com.example.Leave_management_system.model.OutboxEvent;
+import com.example.Leave_management_system.service.LeaveChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/** Appends one outbox row per leave state change, inside the publisher's transaction. */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxRepo;
+    private final ObjectMapper objectMapper;
+
+    @EventListener
+    public void onLeaveChanged(LeaveChangedEvent e) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(e);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("cannot serialize " + e, ex);
+        }
+        outboxRepo.save(OutboxEvent.builder()
+                .eventType(e.previousStatus() == null ? "LEAVE_APPLIED" : "LEAVE_" + e.status().name())
+                .leaveId(e.leaveId())
+                .employeeId(e.employeeId())
+                .payload(payload)
+                .build());
+    }
+}
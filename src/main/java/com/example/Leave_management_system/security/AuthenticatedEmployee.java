@@ -0,0 +1,5 @@
+package com.example.Leave_management_system.security;
+
+/** Principal built from verified JWT claims alone; no employees lookup per request. */
+public record AuthenticatedEmployee(Long id, String email, String role, String tokenId) {
+}
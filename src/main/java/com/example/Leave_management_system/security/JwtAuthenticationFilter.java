@@ -2,18 +2,21 @@ package com.example.Leave_management_system.security;
 
 
 import com.example.Leave_management_system.service.EmployeeDetailsService; // custom UserDetailsService
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
@@ -21,6 +24,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final EmployeeDetailsService userDetailsService;
+    private final TokenRevocationService revocations;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -28,27 +32,37 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
-        final String token;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        token = authHeader.substring(7);
-        username = jwtUtil.extractUsername(token);
-
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            var userDetails = userDetailsService.loadUserByUsername(username);
+        final VerifiedJwt jwt;
+        try {
+            jwt = jwtUtil.verify(authHeader.substring(7)); // parsed + HMAC-checked once, then cached
+        } catch (JwtException | IllegalArgumentException ex) {
+            filterChain.doFilter(request, response); // invalid/expired: continue unauthenticated
+            return;
+        }
 
-            if (jwtUtil.validateToken(token, userDetails)) {
-                var authToken = new UsernamePasswordAuthenticationToken(
+        if (jwt.subject() != null && !revocations.isRevoked(jwt)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UsernamePasswordAuthenticationToken authToken;
+            if (jwt.hasAuthorityClaims()) {
+                // stateless: everything needed is in the verified claims
+                var principal = new AuthenticatedEmployee(jwt.employeeId(), jwt.subject(), jwt.role(), jwt.id());
+                authToken = new UsernamePasswordAuthenticationToken(
+                        principal, null, List.of(new SimpleGrantedAuthority(jwt.role())));
+            } else {
+                // tokens issued before claims were embedded: resolve authorities from the DB
+                var userDetails = userDetailsService.loadUserByUsername(jwt.subject());
+                authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities()
                 );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         filterChain.doFilter(request, response);
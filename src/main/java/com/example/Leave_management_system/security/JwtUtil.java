@@ -1,53 +1,124 @@
 package com.example.Leave_management_system.security;
 
+import com.example.Leave_management_system.model.Employee;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.stereotype.Component;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
 
+    public static final Duration TOKEN_TTL = Duration.ofHours(10);
+    static final String CLAIM_EMPLOYEE_ID = "eid";
+    static final String CLAIM_ROLE = "role";
+
     @Value("${jwt.secret}")
     private String SECRET_KEY;
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    @Value("${jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    // built once; JwtParser is immutable and thread-safe
+    private Key signingKey;
+    private JwtParser parser;
+
+    /** Recently verified tokens, keyed by SHA-256 of the token; a hit past its exp is rejected. */
+    private Cache<TokenKey, VerifiedJwt> verified;
+
+    private record TokenKey(long hi, long lo) {}
+
+    @PostConstruct
+    void init() {
+        // same base64 interpretation of the secret as the old String-key API, so issued tokens stay valid
+        signingKey = new SecretKeySpec(Decoders.BASE64.decode(SECRET_KEY), SignatureAlgorithm.HS256.getJcaName());
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verified = Caffeine.newBuilder()
+                .maximumSize(cacheMaxEntries)
+                .expireAfterWrite(TOKEN_TTL) // no token outlives its TTL
+                .build();
     }
 
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Verifies signature and expiry once and returns the claims; repeated calls with
+     * the same token are served from the cache until the token expires.
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public VerifiedJwt verify(String token) {
+        var key = keyOf(token);
+        var now = Instant.now();
+        var hit = verified.getIfPresent(key);
+        if (hit != null) {
+            if (!hit.isExpired(now)) return hit;
+            verified.invalidate(key);
+            throw new ExpiredJwtException(null, null, "JWT expired at " + hit.expiresAt());
+        }
+
+        Claims c = parser.parseClaimsJws(token).getBody(); // throws on bad signature / expired
+        var jwt = new VerifiedJwt(c.getId(), c.getSubject(),
+                c.get(CLAIM_EMPLOYEE_ID, Long.class), c.get(CLAIM_ROLE, String.class),
+                c.getIssuedAt() != null ? c.getIssuedAt().toInstant() : null,
+                c.getExpiration() != null ? c.getExpiration().toInstant() : null);
+        if (jwt.expiresAt() != null) verified.put(key, jwt); // never cache tokens without exp
+        return jwt;
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    private static TokenKey keyOf(String token) {
+        try {
+            var d = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new TokenKey(d.getLong(), d.getLong());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex); // SHA-256 is mandatory on every JRE
+        }
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser().setSigningKey(SECRET_KEY).parseClaimsJws(token).getBody();
+    public String extractUsername(String token) {
+        return verify(token).subject();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public Date extractExpiration(String token) {
+        return Date.from(verify(token).expiresAt());
     }
 
-    // ✅ Ye missing method
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        try {
+            return verify(token).subject().equals(userDetails.getUsername());
+        } catch (JwtException ex) {
+            return false;
+        }
     }
 
-    public String generateToken(UserDetails userDetails) {
+    /** Embeds employee id and role so requests can be authenticated from the token alone. */
+    public String generateToken(Employee emp) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
-                .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10)) // 10 hours
-                .signWith(SignatureAlgorithm.HS256, SECRET_KEY)
+                .setId(UUID.randomUUID().toString())
+                .setSubject(emp.getUsername())
+                .claim(CLAIM_EMPLOYEE_ID, emp.getId())
+                .claim(CLAIM_ROLE, emp.isHr() ? "HR" : "EMPLOYEE")
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + TOKEN_TTL.toMillis())) // 10 hours
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 }
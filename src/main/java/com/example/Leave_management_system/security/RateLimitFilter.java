@@ -0,0 +1,163 @@
+package com.example.Leave_management_system.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token-bucket rate limit per principal and endpoint group, placed right after
+ * JwtAuthenticationFilter. Authenticated calls are keyed by the JWT subject, anonymous
+ * ones (login) by client address. Behind a proxy that address is the proxy's unless
+ * server.forward-headers-strategy takes it from X-Forwarded-For (see application.properties),
+ * otherwise every anonymous client shares one bucket. Buckets are CAS-updated (no locks) and live in a
+ * Caffeine cache that drops them after idleMinutes without traffic; a dropped bucket
+ * comes back full, which is what an idle client would have anyway.
+ *
+ * Limits per group: leave.rate-limit.{group}.capacity (burst) and
+ * leave.rate-limit.{group}.refill-per-second (sustained rate).
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    /** first matching group wins */
+    private enum Group {
+        AUTH(false, "/api/auth/**"),
+        HEAVY(false, "/api/leaves/export", "/api/leaves/archive", "/api/analytics/**", "/api/ledger/**", "/api/accruals/**"),
+        WRITE(true),
+        READ(false, "/api/**");
+
+        final boolean writes; // matches any non-GET/HEAD request
+        final String[] patterns;
+
+        Group(boolean writes, String... patterns) {
+            this.writes = writes;
+            this.patterns = patterns;
+        }
+    }
+
+    record Limit(double capacity, double refillPerNano) {}
+
+    private record BucketKey(Group group, String principal) {}
+
+    private final AntPathMatcher paths = new AntPathMatcher();
+    private final MeterRegistry meters;
+    private final boolean enabled;
+    private final Limit[] limits = new Limit[Group.values().length];
+    private final Cache<BucketKey, Bucket> buckets;
+
+    public RateLimitFilter(Environment env, MeterRegistry meters) {
+        this.meters = meters;
+        this.enabled = env.getProperty("leave.rate-limit.enabled", Boolean.class, true);
+        limits[Group.AUTH.ordinal()] = limit(env, "auth", 10, 0.2);
+        limits[Group.HEAVY.ordinal()] = limit(env, "heavy", 5, 0.1);
+        limits[Group.WRITE.ordinal()] = limit(env, "write", 30, 5);
+        limits[Group.READ.ordinal()] = limit(env, "read", 100, 20);
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(env.getProperty("leave.rate-limit.idle-minutes", Long.class, 10L)))
+                .maximumSize(env.getProperty("leave.rate-limit.max-buckets", Long.class, 100_000L))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meters, buckets, "rate_limit_buckets");
+    }
+
+    private static Limit limit(Environment env, String group, long capacity, double refillPerSecond) {
+        long c = env.getProperty("leave.rate-limit." + group + ".capacity", Long.class, capacity);
+        double r = env.getProperty("leave.rate-limit." + group + ".refill-per-second", Double.class, refillPerSecond);
+        // a zero rate never refills: the wait would be infinite and overflow Retry-After
+        if (c < 1) throw new IllegalArgumentException("leave.rate-limit." + group + ".capacity must be >= 1: " + c);
+        if (!(r > 0)) throw new IllegalArgumentException("leave.rate-limit." + group + ".refill-per-second must be > 0: " + r);
+        return new Limit(c, r / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        var group = groupOf(request);
+        var limit = limits[group.ordinal()];
+        var bucket = buckets.get(new BucketKey(group, principalOf(request)), k -> new Bucket(limit.capacity(), System.nanoTime()));
+
+        long waitNanos = bucket.tryConsume(limit, System.nanoTime());
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        meters.counter("api.rate_limited", "group", group.name().toLowerCase()).increment();
+        long retryAfter = Math.max(1, (waitNanos + 999_999_999) / 1_000_000_000);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfter));
+        response.setContentType("application/json");
+        // same shape as GlobalExceptionHandler bodies
+        response.getWriter().write("{\"timestamp\":\"" + LocalDateTime.now()
+                + "\",\"status\":429,\"error\":\"Too Many Requests\",\"message\":\"rate limit exceeded, retry after "
+                + retryAfter + "s\",\"path\":\"" + request.getRequestURI().replace("\"", "") + "\"}");
+    }
+
+    private Group groupOf(HttpServletRequest request) {
+        var uri = request.getRequestURI();
+        var method = request.getMethod();
+        for (var g : Group.values()) {
+            if (g.writes) {
+                if (!"GET".equals(method) && !"HEAD".equals(method)) return g;
+                continue;
+            }
+            for (var p : g.patterns) if (paths.match(p, uri)) return g;
+        }
+        return Group.READ;
+    }
+
+    private static String principalOf(HttpServletRequest request) {
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated()) {
+            var p = auth.getPrincipal();
+            if (p instanceof AuthenticatedEmployee e) return e.email();
+            if (p instanceof UserDetails u) return u.getUsername();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    // ---------- lock-free token bucket ----------
+    static final class Bucket {
+        private record State(double tokens, long at) {}
+
+        private final AtomicReference<State> state;
+
+        Bucket(double tokens, long now) {
+            this.state = new AtomicReference<>(new State(tokens, now));
+        }
+
+        /** @return 0 if a token was taken, otherwise nanos until one is available */
+        long tryConsume(Limit limit, long now) {
+            while (true) {
+                var s = state.get();
+                double tokens = Math.min(limit.capacity(), s.tokens() + Math.max(0, now - s.at()) * limit.refillPerNano());
+                if (tokens < 1) return (long) Math.ceil((1 - tokens) / limit.refillPerNano());
+                if (state.compareAndSet(s, new State(tokens - 1, Math.max(now, s.at())))) return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.Leave_management_system.security;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory revocation for stateless tokens: a denylist of token ids (logout) and a
+ * per-employee "issued before" cutoff (revoke everything for one employee). Entries are
+ * only needed until the affected tokens would have expired anyway, so both maps are
+ * purged of stale entries on every write. State is per node.
+ */
+@Component
+public class TokenRevocationService {
+
+    private final Map<String, Instant> deniedTokens = new ConcurrentHashMap<>();      // jti -> exp
+    private final Map<Long, Instant> revokedBefore = new ConcurrentHashMap<>();       // employeeId -> cutoff
+
+    public void revoke(VerifiedJwt jwt) {
+        if (jwt.id() == null) return; // legacy token without jti: nothing to key on
+        deniedTokens.put(jwt.id(), jwt.expiresAt() != null ? jwt.expiresAt() : Instant.now().plus(JwtUtil.TOKEN_TTL));
+        purge();
+    }
+
+    /**
+     * Revokes the employee's tokens issued before the current second. JWT iat has whole
+     * seconds only, so a finer cutoff would also reject a token issued right after this
+     * call (e.g. the user logging straight back in) for its whole lifetime.
+     */
+    public void revokeAll(Long employeeId) {
+        revokedBefore.put(employeeId, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        purge();
+    }
+
+    public boolean isRevoked(VerifiedJwt jwt) {
+        if (jwt.id() != null && deniedTokens.containsKey(jwt.id())) return true;
+        if (jwt.employeeId() == null) return false;
+        var cutoff = revokedBefore.get(jwt.employeeId());
+        return cutoff != null && (jwt.issuedAt() == null || jwt.issuedAt().isBefore(cutoff));
+    }
+
+    private void purge() {
+        var now = Instant.now();
+        deniedTokens.values().removeIf(exp -> !now.isBefore(exp));
+        revokedBefore.values().removeIf(cutoff -> !now.isBefore(cutoff.plus(JwtUtil.TOKEN_TTL)));
+    }
+}
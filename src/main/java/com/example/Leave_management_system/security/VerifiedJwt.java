@@ -0,0 +1,19 @@
+package com.example.Leave_management_system.security;
+
+import java.time.Instant;
+
+/**
+ * Immutable result of one signature + expiry check; safe to cache until expiresAt.
+ * employeeId/role are null for tokens issued before they were embedded as claims.
+ */
+public record VerifiedJwt(String id, String subject, Long employeeId, String role,
+                          Instant issuedAt, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+
+    public boolean hasAuthorityClaims() {
+        return employeeId != null && role != null;
+    }
+}
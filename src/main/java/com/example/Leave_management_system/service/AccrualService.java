@@ -0,0 +1,298 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.Repository.AccrualCheckpointRepository;
+import com.example.Leave_management_system.Repository.EmployeeRepository;
+import com.example.Leave_management_system.Repository.LeaveAccrualRepository;
+import com.example.Leave_management_system.dto.AccrualRunResponse;
+import com.example.Leave_management_system.exception.BadRequestException;
+import com.example.Leave_management_system.exception.ConflictException;
+import com.example.Leave_management_system.model.AccrualCheckpoint;
+import com.example.Leave_management_system.model.AccrualCheckpointId;
+import com.example.Leave_management_system.model.LeaveType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Monthly leave accrual. Each period (yyyymm) gives every employee entitlement / 12 days
+ * per LeaveType, pro-rated by days employed in the joining month. ANNUAL uses the
+ * employee's annualAllocationDays, the other types leave.accrual.entitlement.*.
+ *
+ * A run splits the employee id space into fixed partitions (stored as checkpoint rows
+ * when the period is first run) and walks them in parallel on a bounded pool. Each
+ * partition goes in keyset chunks, one short transaction per chunk: lock the checkpoint,
+ * read the next employees, JDBC-batch the accrual rows, advance the checkpoint. Employee
+ * and ledger rows are never locked, so apply/approve are not blocked. A crashed run
+ * resumes after the last committed chunk; employees already holding rows for the period
+ * are skipped, so re-runs never accrue twice.
+ *
+ * With leave.accrual.enabled, balances come from accrued days per type instead of the
+ * upfront annualAllocationDays, and the current month is run daily (later runs of a
+ * month only scan employees added since).
+ */
+@Slf4j
+@Service
+public class AccrualService {
+
+    private static final String INSERT = """
+      insert into leave_accruals (employee_id, accrual_period, leave_type, days, created_at)
+      values (?, ?, ?, ?, ?)
+    """;
+    private static final BigDecimal MONTHS = BigDecimal.valueOf(12);
+
+    private record ChunkResult(int employees, int rows, boolean done) {}
+
+    private final EmployeeRepository employeeRepo;
+    private final LeaveAccrualRepository accrualRepo;
+    private final AccrualCheckpointRepository checkpointRepo;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final BalanceChangeStamps balanceStamps;
+    private final boolean enabled;
+    private final int partitions;
+    private final int parallelism;
+    private final int chunkSize;
+    private final Map<LeaveType, Integer> entitlements = new EnumMap<>(LeaveType.class);
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Timer chunkTimer;
+    private final Counter rowsCounter;
+
+    public AccrualService(EmployeeRepository employeeRepo,
+                          LeaveAccrualRepository accrualRepo,
+                          AccrualCheckpointRepository checkpointRepo,
+                          JdbcTemplate jdbc,
+                          PlatformTransactionManager txManager,
+                          BalanceChangeStamps balanceStamps,
+                          MeterRegistry meters,
+                          @Value("${leave.accrual.enabled:false}") boolean enabled,
+                          @Value("${leave.accrual.partitions:8}") int partitions,
+                          @Value("${leave.accrual.parallelism:4}") int parallelism,
+                          @Value("${leave.accrual.chunk-size:1000}") int chunkSize,
+                          @Value("${leave.accrual.entitlement.sick:12}") int sickDays,
+                          @Value("${leave.accrual.entitlement.casual:6}") int casualDays) {
+        this.employeeRepo = employeeRepo;
+        this.accrualRepo = accrualRepo;
+        this.checkpointRepo = checkpointRepo;
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+        this.balanceStamps = balanceStamps;
+        this.enabled = enabled;
+        this.partitions = partitions;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        entitlements.put(LeaveType.SICK, sickDays);
+        entitlements.put(LeaveType.CASUAL, casualDays);
+        this.chunkTimer = Timer.builder("leave.accrual.chunk").publishPercentileHistogram().register(meters);
+        this.rowsCounter = meters.counter("leave.accrual.rows");
+    }
+
+    /** true when balances come from accruals rather than the upfront annual allocation */
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /** Whole days accrued per type in the year so far; fractions carry over until they add up. */
+    @Transactional(readOnly = true)
+    public Map<LeaveType, Integer> accruedDays(Long employeeId, int year) {
+        Map<LeaveType, Integer> out = new EnumMap<>(LeaveType.class);
+        for (var r : accrualRepo.sumByType(employeeId, year * 100 + 1, year * 100 + 12))
+            out.put(r.getType(), r.getDays().intValue());
+        return out;
+    }
+
+    // ---------- run ----------
+    @Scheduled(cron = "${leave.accrual.cron:0 15 0 * * *}")
+    public void scheduledRun() {
+        if (!enabled) return;
+        try {
+            run(YearMonth.now());
+        } catch (ConflictException ex) {
+            log.info("scheduled accrual skipped: {}", ex.getMessage());
+        }
+    }
+
+    public AccrualRunResponse run(YearMonth period) {
+        if (period == null) throw new BadRequestException("period required");
+        if (period.isAfter(YearMonth.now())) throw new BadRequestException("cannot accrue a future period: " + period);
+        if (!running.compareAndSet(false, true)) throw new ConflictException("an accrual run is already in progress");
+        try {
+            long t0 = System.nanoTime();
+            int key = key(period);
+            var open = tx.execute(s -> openCheckpoints(key));
+
+            List<Callable<ChunkResult>> tasks = new ArrayList<>();
+            for (var id : open) tasks.add(() -> runPartition(id));
+            var pool = new ForkJoinPool(parallelism);
+            try {
+                for (var f : pool.invokeAll(tasks)) f.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("accrual run interrupted", ex);
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("accrual run failed; rerun to resume", ex.getCause());
+            } finally {
+                pool.shutdown();
+            }
+
+            var result = status(period);
+            result.setElapsedMs((System.nanoTime() - t0) / 1_000_000);
+            log.info("accrual {}: {} employees, {} rows in {} ms", period,
+                    result.getEmployeesProcessed(), result.getRowsWritten(), result.getElapsedMs());
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public AccrualRunResponse status(YearMonth period) {
+        if (period == null) throw new BadRequestException("period required");
+        var cps = checkpointRepo.findByPeriod(key(period));
+        int completed = (int) cps.stream().filter(AccrualCheckpoint::isCompleted).count();
+        return AccrualRunResponse.builder()
+                .period(period.toString())
+                .partitions(cps.size())
+                .completedPartitions(completed)
+                .complete(!cps.isEmpty() && completed == cps.size())
+                .employeesProcessed(cps.stream().mapToLong(AccrualCheckpoint::getEmployeesProcessed).sum())
+                .rowsWritten(cps.stream().mapToLong(AccrualCheckpoint::getRowsWritten).sum())
+                .build();
+    }
+
+    /**
+     * Creates the period's partitions on its first run: the current id range split evenly,
+     * the last one open-ended. On later runs the last partition is reopened so employees
+     * added since are accrued too. Returns the partitions left to process.
+     */
+    private List<AccrualCheckpointId> openCheckpoints(int period) {
+        var cps = checkpointRepo.findByPeriod(period);
+        if (cps.isEmpty()) {
+            var range = employeeRepo.findIdRange();
+            long lo = range.getMinId() == null ? 0 : range.getMinId() - 1;
+            long hi = range.getMaxId() == null ? 0 : range.getMaxId();
+            long width = Math.max(1, (hi - lo + partitions - 1) / partitions);
+            cps = new ArrayList<>();
+            for (int p = 0; p < partitions; p++) {
+                long from = lo + p * width;
+                cps.add(AccrualCheckpoint.builder()
+                        .id(new AccrualCheckpointId(period, p))
+                        .fromId(from)
+                        .toId(p == partitions - 1 ? Long.MAX_VALUE : from + width)
+                        .cursorId(from)
+                        .build());
+            }
+            checkpointRepo.saveAll(cps);
+        } else {
+            cps.get(cps.size() - 1).setCompleted(false);
+        }
+        return cps.stream().filter(c -> !c.isCompleted()).map(AccrualCheckpoint::getId).toList();
+    }
+
+    private ChunkResult runPartition(AccrualCheckpointId id) {
+        int employees = 0, rows = 0;
+        while (true) {
+            var r = tx.execute(s -> chunk(id));
+            employees += r.employees();
+            rows += r.rows();
+            if (r.done()) return new ChunkResult(employees, rows, true);
+        }
+    }
+
+    private ChunkResult chunk(AccrualCheckpointId id) {
+        var cp = checkpointRepo.findWithLockById(id)
+                .orElseThrow(() -> new IllegalStateException("accrual checkpoint missing: " + id));
+        if (cp.isCompleted()) return new ChunkResult(0, 0, true);
+
+        var sample = Timer.start();
+        var emps = employeeRepo.findAllocationChunk(cp.getCursorId(), cp.getToId(), PageRequest.of(0, chunkSize));
+        if (emps.isEmpty()) {
+            cp.setCompleted(true);
+            return new ChunkResult(0, 0, true);
+        }
+
+        int period = id.getPeriod();
+        var month = YearMonth.of(period / 100, period % 100);
+        long lastId = emps.get(emps.size() - 1).getId();
+        var already = new HashSet<>(accrualRepo.findAccruedEmployeeIds(period, cp.getCursorId(), lastId));
+        var now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> batch = new ArrayList<>();
+        List<Long> accrued = new ArrayList<>();
+        for (var e : emps) {
+            if (already.contains(e.getId())) continue;
+            for (var type : LeaveType.values()) {
+                var days = monthlyDays(entitlement(type, e.getAnnualAllocationDays()), e.getJoiningDate(), month);
+                if (days.signum() > 0) batch.add(new Object[]{e.getId(), period, type.name(), days, now});
+            }
+            accrued.add(e.getId());
+        }
+        if (!batch.isEmpty()) jdbc.batchUpdate(INSERT, batch);
+
+        cp.setCursorId(lastId);
+        cp.setEmployeesProcessed(cp.getEmployeesProcessed() + emps.size());
+        cp.setRowsWritten(cp.getRowsWritten() + batch.size());
+        if (emps.size() < chunkSize) cp.setCompleted(true);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() { accrued.forEach(balanceStamps::bump); }
+        });
+        rowsCounter.increment(batch.size());
+        sample.stop(chunkTimer);
+        return new ChunkResult(emps.size(), batch.size(), cp.isCompleted());
+    }
+
+    private int entitlement(LeaveType type, Integer annualAllocationDays) {
+        if (type == LeaveType.ANNUAL) return annualAllocationDays != null ? annualAllocationDays : 0;
+        return entitlements.getOrDefault(type, 0);
+    }
+
+    /**
+     * Days earned in one month. Months are cut from the running total (entitlement x m / 12,
+     * to 2 decimals), so twelve months always add up to the entitlement exactly. In the
+     * joining month only the days from joiningDate on count.
+     */
+    static BigDecimal monthlyDays(int entitlement, LocalDate joiningDate, YearMonth period) {
+        if (entitlement <= 0 || joiningDate == null || joiningDate.isAfter(period.atEndOfMonth())) return BigDecimal.ZERO;
+        int m = period.getMonthValue();
+        var days = cumulative(entitlement, m).subtract(cumulative(entitlement, m - 1));
+        if (!joiningDate.isBefore(period.atDay(1))) {
+            int len = period.lengthOfMonth();
+            days = days.multiply(BigDecimal.valueOf(len - joiningDate.getDayOfMonth() + 1))
+                    .divide(BigDecimal.valueOf(len), 2, RoundingMode.HALF_UP);
+        }
+        return days;
+    }
+
+    private static BigDecimal cumulative(int entitlement, int months) {
+        return BigDecimal.valueOf((long) entitlement * months).divide(MONTHS, 2, RoundingMode.HALF_UP);
+    }
+
+    private static int key(YearMonth period) {
+        return period.getYear() * 100 + period.getMonthValue();
+    }
+}
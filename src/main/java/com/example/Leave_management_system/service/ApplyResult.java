@@ -0,0 +1,5 @@
+package com.example.Leave_management_system.service;
+
+/** apply() outcome; replayed = answered from a stored Idempotency-Key, nothing was written. */
+public record ApplyResult(Long leaveId, boolean replayed) {
+}
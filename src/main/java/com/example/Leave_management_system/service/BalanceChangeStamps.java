@@ -0,0 +1,56 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.model.LeaveStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Change stamps behind the balance ETag. A stamp is bumped after commit of anything that
+ * can move a balance: an approval (or un-approval), an employee write, a ledger rebuild.
+ * Stamps are striped by employee id, so a bump also invalidates the other employees of
+ * that stripe (costing them one full response, never a stale 304).
+ *
+ * The ETag carries a per-process epoch, so tags from before a restart never match.
+ * Stamps only see this node's writes: disable on multi-node deployments, like the
+ * overlap index.
+ */
+@Component
+public class BalanceChangeStamps {
+
+    private static final int STRIPES = 1024;
+
+    private final boolean enabled;
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+
+    public BalanceChangeStamps(@Value("${leave.balance-etag.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /** Strong ETag for an employee's balance in a year, or null when disabled. Read it before the balance. */
+    public String etag(Long employeeId, int year) {
+        if (!enabled) return null;
+        return "\"bal-" + employeeId + "-" + year + "-" + epoch + "-" + stamps.get(stripe(employeeId)) + "\"";
+    }
+
+    @TransactionalEventListener
+    public void onLeaveChanged(LeaveChangedEvent e) {
+        if (e.status() == LeaveStatus.APPROVED || e.previousStatus() == LeaveStatus.APPROVED) bump(e.employeeId());
+    }
+
+    public void bump(Long employeeId) {
+        stamps.incrementAndGet(stripe(employeeId));
+    }
+
+    public void bumpAll() {
+        for (int i = 0; i < STRIPES; i++) stamps.incrementAndGet(i);
+    }
+
+    private static int stripe(Long employeeId) {
+        return (int) (employeeId & (STRIPES - 1));
+    }
+}
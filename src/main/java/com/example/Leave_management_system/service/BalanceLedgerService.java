@@ -0,0 +1,122 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.Repository.ArchivedLeaveRepository;
+import com.example.Leave_management_system.Repository.LeaveBalanceRepository;
+import com.example.Leave_management_system.Repository.LeaveRequestRepository;
+import com.example.Leave_management_system.dto.LedgerDriftResponse;
+import com.example.Leave_management_system.model.LeaveBalance;
+import com.example.Leave_management_system.model.LeaveBalanceId;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Owns the leave_balances ledger. Reads are PK lookups; writes happen inside the
+ * APPROVED transition's transaction, after all of the employee's rows for the year are
+ * locked (lockForYear), so two concurrent approvals for the same employee/year cannot
+ * both spend the same remaining days, whatever their types.
+ */
+@Service @RequiredArgsConstructor
+public class BalanceLedgerService {
+
+    private final LeaveBalanceRepository balanceRepo;
+    private final LeaveRequestRepository leaveRepo;
+    private final ArchivedLeaveRepository archiveRepo;
+    private final BalanceChangeStamps balanceStamps;
+
+    @Transactional(readOnly = true)
+    public YearLedger yearLedger(Long employeeId, int year){
+        return YearLedger.of(balanceRepo.findAllById_EmployeeIdAndId_Year(employeeId, year));
+    }
+
+    /**
+     * Locks (FOR UPDATE) the ledger rows of several employees for one year, for decisions
+     * that check and spend balance (one approval, or many leaves in one transaction).
+     * A row that does not exist locks nothing, and a concurrent approval could insert it
+     * before this transaction does; so the rows in {@code create} are inserted first if
+     * missing (INSERT IGNORE) and then locked with the others. A row still absent after
+     * that is being inserted by a transaction that has not committed (InnoDB waits for it,
+     * H2 does not); callers treat it as a conflict. Persist the map values when done.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<LeaveBalanceId, LeaveBalance> lockForYear(int year, Collection<Long> employeeIds,
+                                                         Collection<LeaveBalanceId> create){
+        Map<LeaveBalanceId, LeaveBalance> rows = new HashMap<>();
+        for (var row : balanceRepo.findForUpdate(year, employeeIds)) rows.put(row.getId(), row);
+        var missing = create.stream().filter(id -> !rows.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            for (var id : missing) balanceRepo.createIfAbsent(id.getEmployeeId(), id.getYear(), id.getType().name());
+            for (var row : balanceRepo.findForUpdate(year, employeeIds)) rows.put(row.getId(), row);
+        }
+        return rows;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void saveAll(Collection<LeaveBalance> rows){
+        balanceRepo.saveAll(rows);
+    }
+
+    // ---------- rebuild / verify against leave_requests ----------
+    @Transactional(readOnly = true)
+    public LedgerDriftResponse verify(int year){
+        return reconcile(year, false);
+    }
+
+    @Transactional
+    public LedgerDriftResponse rebuild(int year){
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() { balanceStamps.bumpAll(); }
+        });
+        return reconcile(year, true);
+    }
+
+    private LedgerDriftResponse reconcile(int year, boolean repair){
+        Map<LeaveBalanceId, Integer> actual = new HashMap<>();
+        var yearStart = LocalDate.of(year,1,1);
+        var yearEnd = LocalDate.of(year,12,31);
+        // archived leaves still count towards their year
+        for (var rows : List.of(leaveRepo.sumApprovedDaysGrouped(yearStart, yearEnd),
+                                archiveRepo.sumApprovedDaysGrouped(yearStart, yearEnd))) {
+            for (var r : rows)
+                actual.merge(new LeaveBalanceId(r.getEmployeeId(), year, r.getType()), r.getDays().intValue(), Integer::sum);
+        }
+
+        List<LedgerDriftResponse.Drift> drifts = new ArrayList<>();
+        List<LeaveBalance> dirty = new ArrayList<>();
+        var existing = balanceRepo.findAllById_Year(year);
+
+        for (var row : existing) {
+            int expected = Optional.ofNullable(actual.remove(row.getId())).orElse(0);
+            if (row.getApprovedDays() != expected) {
+                drifts.add(drift(row.getId(), row.getApprovedDays(), expected));
+                row.setApprovedDays(expected);
+                dirty.add(row);
+            }
+        }
+        // approved leaves with no ledger row at all (e.g. data from before the ledger existed)
+        actual.forEach((id, days) -> {
+            drifts.add(drift(id, 0, days));
+            dirty.add(LeaveBalance.builder().id(id).approvedDays(days).build());
+        });
+
+        if (repair && !dirty.isEmpty()) balanceRepo.saveAll(dirty);
+
+        return LedgerDriftResponse.builder()
+                .year(year)
+                .repaired(repair)
+                .rowsChecked(existing.size() + actual.size())
+                .drifts(drifts)
+                .build();
+    }
+
+    private static LedgerDriftResponse.Drift drift(LeaveBalanceId id, int ledger, int actual){
+        return new LedgerDriftResponse.Drift(id.getEmployeeId(), id.getType().name(), ledger, actual);
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.Repository.EmployeeRepository;
+import com.example.Leave_management_system.Repository.LeaveAccrualRepository;
+import com.example.Leave_management_system.Repository.LeaveBalanceRepository;
+import com.example.Leave_management_system.Repository.LeaveRequestRepository;
+import com.example.Leave_management_system.dto.CarryForwardResponse;
+import com.example.Leave_management_system.exception.BadRequestException;
+import com.example.Leave_management_system.exception.ConflictException;
+import com.example.Leave_management_system.model.LeaveType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Year-end closing. For every employee employed by the end of the year:
+ * closing = allowance + carried in - approved, then up to capDays is carried into next
+ * year's ledger row (LeaveBalance.carriedInDays of ANNUAL) and the rest lapses.
+ * The allowance is annualAllocationDays, or the whole ANNUAL days accrued when
+ * leave.accrual.enabled (then only ANNUAL carries; other types lapse).
+ *
+ * Employees are walked in id-keyset chunks, one short transaction each: approved days,
+ * carried-in days and (accrual mode) accrued days come from one grouped query per chunk,
+ * and opening balances are JDBC-batched upserts. Opening balances are set, not added,
+ * so re-running a year (e.g. after late approvals) corrects rather than doubles them.
+ * A dry run computes the same totals and writes nothing.
+ */
+@Slf4j
+@Service
+public class CarryForwardService {
+
+    private static final String UPSERT_OPENING = """
+      insert into leave_balances (employee_id, balance_year, leave_type, approved_days, carried_in_days, updated_at, version)
+      values (?, ?, 'ANNUAL', 0, ?, ?, 0)
+      on duplicate key update carried_in_days = values(carried_in_days), updated_at = values(updated_at), version = version + 1
+    """;
+
+    private record ChunkResult(int employees, long lastId, long evaluated, long carried, long lapsed, long lapsing) {}
+
+    private final EmployeeRepository employeeRepo;
+    private final LeaveRequestRepository leaveRepo;
+    private final LeaveBalanceRepository balanceRepo;
+    private final LeaveAccrualRepository accrualRepo;
+    private final AccrualService accruals;
+    private final LeaveArchiveService archive;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate readOnlyTx;
+    private final BalanceChangeStamps balanceStamps;
+    private final int capDays;
+    private final int chunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final Timer chunkTimer;
+    private final Counter carriedCounter;
+    private final Counter lapsedCounter;
+
+    public CarryForwardService(EmployeeRepository employeeRepo,
+                               LeaveRequestRepository leaveRepo,
+                               LeaveBalanceRepository balanceRepo,
+                               LeaveAccrualRepository accrualRepo,
+                               AccrualService accruals,
+                               LeaveArchiveService archive,
+                               JdbcTemplate jdbc,
+                               PlatformTransactionManager txManager,
+                               BalanceChangeStamps balanceStamps,
+                               MeterRegistry meters,
+                               @Value("${leave.carry-forward.cap-days:5}") int capDays,
+                               @Value("${leave.carry-forward.chunk-size:1000}") int chunkSize) {
+        this.employeeRepo = employeeRepo;
+        this.leaveRepo = leaveRepo;
+        this.balanceRepo = balanceRepo;
+        this.accrualRepo = accrualRepo;
+        this.accruals = accruals;
+        this.archive = archive;
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.balanceStamps = balanceStamps;
+        this.capDays = capDays;
+        this.chunkSize = chunkSize;
+        meters.gauge("leave.carry_forward.processed", processed);
+        meters.gauge("leave.carry_forward.total", total);
+        this.chunkTimer = Timer.builder("leave.carry_forward.chunk").publishPercentileHistogram().register(meters);
+        this.carriedCounter = meters.counter("leave.carry_forward.days", "kind", "carried");
+        this.lapsedCounter = meters.counter("leave.carry_forward.days", "kind", "lapsed");
+    }
+
+    @Scheduled(cron = "${leave.carry-forward.cron:0 30 1 1 1 *}")
+    public void scheduledRun() {
+        try {
+            run(LocalDate.now().getYear() - 1, false);
+        } catch (ConflictException ex) {
+            log.info("scheduled carry-forward skipped: {}", ex.getMessage());
+        }
+    }
+
+    public CarryForwardResponse run(int year, boolean dryRun) {
+        if (year > LocalDate.now().getYear()) throw new BadRequestException("year has not started: " + year);
+        // the current year can still change; a real run would lapse days that are yet to be taken
+        if (!dryRun && year == LocalDate.now().getYear()) throw new BadRequestException("year has not ended: " + year + "; use dryRun to preview");
+        if (year < archive.cutoff().getYear()) throw new BadRequestException("leaves of " + year + " are archived; it can no longer be closed");
+        if (!running.compareAndSet(false, true)) throw new ConflictException("a carry-forward run is already in progress");
+        try {
+            long t0 = System.nanoTime();
+            processed.set(0);
+            total.set(employeeRepo.count());
+            long afterId = 0, employees = 0, carried = 0, lapsed = 0, lapsing = 0;
+            while (true) {
+                long from = afterId;
+                var r = (dryRun ? readOnlyTx : tx).execute(s -> chunk(year, from, dryRun));
+                if (r.employees() == 0) break;
+                processed.addAndGet(r.employees());
+                employees += r.evaluated();
+                carried += r.carried();
+                lapsed += r.lapsed();
+                lapsing += r.lapsing();
+                afterId = r.lastId();
+            }
+            long ms = (System.nanoTime() - t0) / 1_000_000;
+            log.info("carry-forward {} -> {}{}: {} employees, {} days carried, {} lapsed in {} ms",
+                    year, year + 1, dryRun ? " (dry run)" : "", employees, carried, lapsed, ms);
+            return CarryForwardResponse.builder()
+                    .fromYear(year).toYear(year + 1)
+                    .dryRun(dryRun).capDays(capDays)
+                    .employees(employees)
+                    .carriedDays(carried).lapsedDays(lapsed).employeesLapsing(lapsing)
+                    .elapsedMs(ms)
+                    .employeesPerSecond(processed.get() * 1000 / Math.max(1, ms))
+                    .build();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ChunkResult chunk(int year, long afterId, boolean dryRun) {
+        var emps = employeeRepo.findAllocationChunk(afterId, Long.MAX_VALUE, PageRequest.of(0, chunkSize));
+        if (emps.isEmpty()) return new ChunkResult(0, afterId, 0, 0, 0, 0);
+        var sample = Timer.start();
+        long lastId = emps.get(emps.size() - 1).getId();
+        var yearEnd = LocalDate.of(year, 12, 31);
+
+        // with accruals only ANNUAL carries, so only ANNUAL approvals count against it
+        Map<Long, Integer> approved = new HashMap<>();
+        for (var r : leaveRepo.sumApprovedDaysGroupedForRange(LocalDate.of(year, 1, 1), yearEnd, afterId, lastId)) {
+            if (!accruals.enabled() || r.getType() == LeaveType.ANNUAL)
+                approved.merge(r.getEmployeeId(), r.getDays().intValue(), Integer::sum);
+        }
+        Map<Long, Integer> carriedIn = new HashMap<>();
+        for (var r : balanceRepo.findCarriedIn(year, afterId, lastId))
+            carriedIn.merge(r.getEmployeeId(), r.getDays(), Integer::sum);
+        Map<Long, Integer> accrued = new HashMap<>();
+        if (accruals.enabled()) {
+            for (var r : accrualRepo.sumForRange(LeaveType.ANNUAL, year * 100 + 1, year * 100 + 12, afterId, lastId))
+                accrued.put(r.getEmployeeId(), r.getDays().intValue());
+        }
+
+        var now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> openings = new ArrayList<>();
+        long evaluated = 0, carried = 0, lapsed = 0, lapsing = 0;
+        for (var e : emps) {
+            if (e.getJoiningDate().isAfter(yearEnd)) continue;
+            Long id = e.getId();
+            int allowance = accruals.enabled() ? accrued.getOrDefault(id, 0)
+                    : Optional.ofNullable(e.getAnnualAllocationDays()).orElse(0);
+            int closing = Math.max(0, allowance + carriedIn.getOrDefault(id, 0) - approved.getOrDefault(id, 0));
+            int carry = Math.min(closing, capDays);
+            evaluated++;
+            carried += carry;
+            lapsed += closing - carry;
+            if (closing > carry) lapsing++;
+            if (carry > 0) openings.add(new Object[]{id, year + 1, carry, now});
+        }
+
+        if (!dryRun) {
+            // set, not add: clear the chunk's previous openings (re-runs), then upsert the new ones
+            balanceRepo.clearCarriedIn(year + 1, afterId, lastId);
+            if (!openings.isEmpty()) jdbc.batchUpdate(UPSERT_OPENING, openings);
+            long carriedDays = carried, lapsedDays = lapsed;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    emps.forEach(e -> balanceStamps.bump(e.getId()));
+                    carriedCounter.increment(carriedDays);
+                    lapsedCounter.increment(lapsedDays);
+                }
+            });
+        }
+        sample.stop(chunkTimer);
+        return new ChunkResult(emps.size(), lastId, evaluated, carried, lapsed, lapsing);
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.Repository.LeaveRequestRepository;
+import com.example.Leave_management_system.dto.DepartmentCalendarResponse;
+import com.example.Leave_management_system.exception.BadRequestException;
+import com.example.Leave_management_system.model.LeaveStatus;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * "Who's out" index: per department, one BitSet of employee slots per day for APPROVED
+ * and one for PENDING leaves. Loaded once before the web server starts (leaves ending
+ * within historyDays or later), then kept current from LeaveChangedEvent after commit.
+ * Calendar queries never touch the DB. Days before the horizon are not kept and are
+ * pruned daily, so memory follows the horizon rather than the age of the process.
+ *
+ * Employees get a dense slot number inside their department so bitsets stay small.
+ * Events that arrive while a load runs are buffered and applied after it in order:
+ * applied earlier, a cleared bit could be set again by the load. An employee found in
+ * another department than their bits are in has them moved on their next event.
+ *
+ * Only this node's commits reach the index, so with several nodes it misses the others'
+ * changes. A full rebuild (leave.calendar.rebuild-cron, off by default) reloads it without
+ * blocking readers; multi-node deployments should schedule one or disable the index
+ * (leave.calendar.enabled=false), which answers each calendar from one DB query instead.
+ */
+@Component
+public class DepartmentCalendarIndex implements SmartInitializingSingleton {
+
+    private static final List<LeaveStatus> BLOCKING = List.of(LeaveStatus.PENDING, LeaveStatus.APPROVED);
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private final LeaveRequestRepository leaveRepo;
+    private final EmployeeService employeeService;
+    private final int historyDays;
+    private final boolean enabled;
+
+    private volatile Map<String, Dept> departments = new ConcurrentHashMap<>();
+    private volatile Map<Long, String> homes = new ConcurrentHashMap<>(); // department holding an employee's bits
+
+    // events committed while a load runs; null otherwise
+    private final Object loadLock = new Object();
+    private List<LeaveChangedEvent> buffered = new ArrayList<>();
+
+    public DepartmentCalendarIndex(LeaveRequestRepository leaveRepo,
+                                   EmployeeService employeeService,
+                                   @Value("${leave.calendar.history-days:365}") int historyDays,
+                                   @Value("${leave.calendar.enabled:true}") boolean enabled) {
+        this.leaveRepo = leaveRepo;
+        this.employeeService = employeeService;
+        this.historyDays = historyDays;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enabled) load();
+        else synchronized (loadLock) { buffered = null; }
+    }
+
+    /** Reloads from leave_requests, picking up other nodes' changes; readers keep the old index meanwhile. */
+    @Scheduled(cron = "${leave.calendar.rebuild-cron:-}")
+    public void rebuild() {
+        if (!enabled) return;
+        synchronized (loadLock) {
+            if (buffered != null) return; // a load is running
+            buffered = new ArrayList<>();
+        }
+        load();
+    }
+
+    private void load() {
+        var horizon = horizon();
+        Map<String, Dept> fresh = new ConcurrentHashMap<>();
+        Map<Long, String> freshHomes = new ConcurrentHashMap<>();
+        for (var r : leaveRepo.findCalendarRows(BLOCKING, horizon)) {
+            fresh.computeIfAbsent(r.getDepartment(), k -> new Dept()).mark(r.getEmployeeId(), r.getEmployeeName(),
+                    r.getStatus(), r.getStartDate(), r.getEndDate(), true, horizon);
+            freshHomes.put(r.getEmployeeId(), r.getDepartment());
+        }
+        synchronized (loadLock) { // new events wait here until the buffered ones are applied
+            departments = fresh;
+            homes = freshHomes;
+            for (var e : buffered) apply(e);
+            buffered = null;
+        }
+    }
+
+    @TransactionalEventListener
+    public void onLeaveChanged(LeaveChangedEvent e) {
+        if (!enabled) return;
+        synchronized (loadLock) {
+            if (buffered != null) {
+                buffered.add(e);
+                return;
+            }
+        }
+        apply(e);
+    }
+
+    /** Drops day buckets that fell behind the horizon. */
+    @Scheduled(cron = "${leave.calendar.prune-cron:0 45 2 * * *}")
+    public void prune() {
+        int horizon = (int) horizon().toEpochDay();
+        for (var d : departments.values()) d.prune(horizon);
+    }
+
+    private void apply(LeaveChangedEvent e) {
+        var horizon = horizon();
+        var emp = employeeService.getOrThrow(e.employeeId()); // cached snapshot
+        var home = homes.put(emp.getId(), emp.getDepartment());
+        var d = dept(emp.getDepartment());
+        if (home != null && !home.equals(emp.getDepartment())) {
+            var old = departments.get(home);
+            if (old != null) d.moveIn(emp.getId(), emp.getName(), old.moveOut(emp.getId()));
+        }
+        if (e.previousStatus() != null && BLOCKING.contains(e.previousStatus()))
+            d.mark(emp.getId(), emp.getName(), e.previousStatus(), e.startDate(), e.endDate(), false, horizon);
+        if (e.active())
+            d.mark(emp.getId(), emp.getName(), e.status(), e.startDate(), e.endDate(), true, horizon);
+    }
+
+    private LocalDate horizon() {
+        return LocalDate.now().minusDays(historyDays);
+    }
+
+    public DepartmentCalendarResponse calendar(String department, LocalDate from, LocalDate to) {
+        if (from == null || to == null) throw new BadRequestException("from/to required");
+        if (to.isBefore(from)) throw new BadRequestException("to before from");
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS)
+            throw new BadRequestException("range must be at most " + MAX_RANGE_DAYS + " days");
+
+        var d = enabled ? departments.get(department) : fromDb(department, from, to);
+        List<DepartmentCalendarResponse.Day> days = new ArrayList<>();
+        Map<Long, String> names = new TreeMap<>();
+        if (d == null) {
+            for (var day = from; !day.isAfter(to); day = day.plusDays(1))
+                days.add(new DepartmentCalendarResponse.Day(day, List.of(), List.of()));
+        } else {
+            d.lock.readLock().lock();
+            try {
+                for (var day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                    int key = (int) day.toEpochDay();
+                    days.add(new DepartmentCalendarResponse.Day(day,
+                            d.employees(d.approved.get(key), names), d.employees(d.pending.get(key), names)));
+                }
+            } finally {
+                d.lock.readLock().unlock();
+            }
+        }
+        return DepartmentCalendarResponse.builder()
+                .department(department).from(from).to(to)
+                .employees(names).days(days)
+                .build();
+    }
+
+    private Dept dept(String department) {
+        return departments.computeIfAbsent(department, k -> new Dept());
+    }
+
+    /** index disabled: the department's leaves in [from, to] in a throwaway Dept */
+    private Dept fromDb(String department, LocalDate from, LocalDate to) {
+        var d = new Dept();
+        for (var r : leaveRepo.findCalendarRowsByDepartment(department, BLOCKING, from, to))
+            d.mark(r.getEmployeeId(), r.getEmployeeName(), r.getStatus(), r.getStartDate(), r.getEndDate(), true, from);
+        return d;
+    }
+
+    // ---------- one department's day buckets ----------
+    private static final class Dept {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final Map<Long, Integer> slotOf = new HashMap<>();
+        final List<Long> ids = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        final Map<Integer, BitSet> approved = new HashMap<>();
+        final Map<Integer, BitSet> pending = new HashMap<>();
+
+        void mark(Long employeeId, String name, LeaveStatus status, LocalDate start, LocalDate end, boolean on,
+                  LocalDate horizon) {
+            var buckets = status == LeaveStatus.APPROVED ? approved : pending;
+            lock.writeLock().lock();
+            try {
+                int slot = slot(employeeId, name);
+                for (long day = Math.max(start.toEpochDay(), horizon.toEpochDay()); day <= end.toEpochDay(); day++) {
+                    int key = (int) day;
+                    if (on) {
+                        buckets.computeIfAbsent(key, k -> new BitSet()).set(slot);
+                    } else {
+                        var bits = buckets.get(key);
+                        if (bits == null) continue;
+                        bits.clear(slot);
+                        if (bits.isEmpty()) buckets.remove(key);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /** Clears an employee's bits; returns the days they were set on, approved then pending. */
+        List<List<Integer>> moveOut(Long employeeId) {
+            lock.writeLock().lock();
+            try {
+                var slot = slotOf.get(employeeId);
+                if (slot == null) return List.of(List.of(), List.of());
+                return List.of(clear(approved, slot), clear(pending, slot));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private static List<Integer> clear(Map<Integer, BitSet> buckets, int slot) {
+            List<Integer> days = new ArrayList<>();
+            for (var it = buckets.entrySet().iterator(); it.hasNext(); ) {
+                var e = it.next();
+                if (!e.getValue().get(slot)) continue;
+                days.add(e.getKey());
+                e.getValue().clear(slot);
+                if (e.getValue().isEmpty()) it.remove();
+            }
+            return days;
+        }
+
+        void moveIn(Long employeeId, String name, List<List<Integer>> days) {
+            lock.writeLock().lock();
+            try {
+                int slot = slot(employeeId, name);
+                for (int day : days.get(0)) approved.computeIfAbsent(day, k -> new BitSet()).set(slot);
+                for (int day : days.get(1)) pending.computeIfAbsent(day, k -> new BitSet()).set(slot);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /** caller holds the write lock */
+        private int slot(Long employeeId, String name) {
+            return slotOf.computeIfAbsent(employeeId, id -> {
+                ids.add(id);
+                names.add(name);
+                return ids.size() - 1;
+            });
+        }
+
+        void prune(int horizonDay) {
+            lock.writeLock().lock();
+            try {
+                approved.keySet().removeIf(day -> day < horizonDay);
+                pending.keySet().removeIf(day -> day < horizonDay);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /** caller holds the read lock */
+        List<Long> employees(BitSet bits, Map<Long, String> namesOut) {
+            if (bits == null) return List.of();
+            List<Long> out = new ArrayList<>(bits.cardinality());
+            for (int slot = bits.nextSetBit(0); slot >= 0; slot = bits.nextSetBit(slot + 1)) {
+                var id = ids.get(slot);
+                out.add(id);
+                namesOut.put(id, names.get(slot));
+            }
+            return out;
+        }
+    }
+}
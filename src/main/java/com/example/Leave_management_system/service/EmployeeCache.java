@@ -0,0 +1,59 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.Repository.EmployeeRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Size- and TTL-bounded cache of EmployeeSnapshot by id. Misses are loaded with findById
+ * (or one IN-query for getAll); unknown ids are not cached. Hit/miss/eviction counts are
+ * published as cache.* metrics with cache=employees.
+ */
+@Component
+public class EmployeeCache {
+
+    private final LoadingCache<Long, EmployeeSnapshot> cache;
+
+    public EmployeeCache(EmployeeRepository employeeRepository,
+                         MeterRegistry meters,
+                         @Value("${leave.employee-cache.max-size:10000}") long maxSize,
+                         @Value("${leave.employee-cache.ttl-minutes:10}") long ttlMinutes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build(new com.github.benmanes.caffeine.cache.CacheLoader<>() {
+                    @Override
+                    public EmployeeSnapshot load(Long id) {
+                        return employeeRepository.findById(id).map(EmployeeSnapshot::of).orElse(null);
+                    }
+
+                    @Override
+                    public Map<Long, EmployeeSnapshot> loadAll(Set<? extends Long> ids) {
+                        Map<Long, EmployeeSnapshot> out = new HashMap<>();
+                        for (var e : employeeRepository.findAllById(new ArrayList<>(ids))) out.put(e.getId(), EmployeeSnapshot.of(e));
+                        return out;
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meters, cache, "employees");
+    }
+
+    public Optional<EmployeeSnapshot> get(Long id) {
+        return Optional.ofNullable(cache.get(id));
+    }
+
+    public Map<Long, EmployeeSnapshot> getAll(Collection<Long> ids) {
+        return cache.getAll(ids);
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.model.Employee;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener on Employee: evicts the cached snapshot on every write, and again after
+ * commit so a reader that reloaded the pre-commit row in between cannot keep it.
+ * The balance ETag stamp is bumped after commit too (allocation may have changed).
+ * The cache is looked up lazily because Hibernate creates listeners while the
+ * EntityManagerFactory (which the cache's repository needs) is still being built.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmployeeCacheInvalidator {
+
+    private final ObjectProvider<EmployeeCache> cache;
+    private final ObjectProvider<BalanceChangeStamps> balanceStamps;
+
+    @PostPersist @PostUpdate @PostRemove
+    void onChange(Employee e) {
+        var id = e.getId();
+        cache.getObject().invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.getObject().invalidate(id);
+                    balanceStamps.getObject().bump(id);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.exception.ConflictException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks keyed by employee id, so same-employee work on this node runs one at
+ * a time while different employees rarely contend. Two employees sharing a stripe only
+ * cost each other a wait; nothing is allocated per employee.
+ */
+@Component
+public class EmployeeLockStripes {
+
+    private final ReentrantLock[] locks;
+    private final long timeoutMillis;
+    private final Timer waits;
+
+    public EmployeeLockStripes(MeterRegistry meters,
+                               @Value("${leave.apply.lock-stripes:256}") int stripes,
+                               @Value("${leave.apply.lock-timeout-ms:5000}") long timeoutMillis) {
+        int n = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1; // next power of two
+        this.locks = new ReentrantLock[n];
+        for (int i = 0; i < n; i++) locks[i] = new ReentrantLock();
+        this.timeoutMillis = timeoutMillis;
+        this.waits = Timer.builder("leave.apply.lock_wait").publishPercentileHistogram().register(meters);
+    }
+
+    /** Runs body while holding the employee's stripe; gives up with 409 after the timeout. */
+    public <T> T withLock(Long employeeId, java.util.function.Supplier<T> body) {
+        var lock = locks[stripe(employeeId)];
+        long t0 = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("interrupted waiting for another request of employee " + employeeId);
+        }
+        waits.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        if (!acquired) throw new ConflictException("another request for employee " + employeeId + " is in progress");
+        try {
+            return body.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int stripe(Long employeeId) {
+        long h = employeeId * 0x9E3779B97F4A7C15L; // spread sequential ids
+        return (int) (h >>> 32) & (locks.length - 1);
+    }
+}
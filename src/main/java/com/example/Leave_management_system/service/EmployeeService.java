@@ -9,11 +9,16 @@ import com.example.Leave_management_system.exception.NotFoundException;
 import com.example.Leave_management_system.model.Employee;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Map;
+
 @Service @RequiredArgsConstructor
 public class EmployeeService {
     private final EmployeeRepository employeeRepository;
+    private final EmployeeCache employeeCache;
 
     @Transactional
     public Employee create(CreateEmployeeRequest req){
@@ -28,11 +33,31 @@ public class EmployeeService {
                 .hr(Boolean.TRUE.equals(req.getHr()))
                 .annualAllocationDays(req.getAnnualAllocationDays())
                 .build();
-        return employeeRepository.save(emp);
+        var saved = employeeRepository.save(emp);
+        employeeCache.invalidate(saved.getId());
+        return saved;
+    }
+
+    /** Cached snapshot; see EmployeeCache for size/TTL and invalidation. */
+    public EmployeeSnapshot getOrThrow(Long id){
+        return employeeCache.get(id)
+                .orElseThrow(() -> new NotFoundException("employee not found: " + id));
     }
 
-    public Employee getOrThrow(Long id){
-        return employeeRepository.findById(id)
+    /** Cached snapshots for a batch; misses are loaded with one IN-query, unknown ids are absent. */
+    public Map<Long, EmployeeSnapshot> getAllById(Collection<Long> ids){
+        return employeeCache.getAll(ids);
+    }
+
+    /** SELECT ... FOR UPDATE on the employee row; held until the caller's transaction ends. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockRow(Long id){
+        employeeRepository.findWithLockById(id)
                 .orElseThrow(() -> new NotFoundException("employee not found: " + id));
     }
+
+    /** Proxy for association writes (LeaveRequest.employee / approver); no select issued. */
+    public Employee getReference(Long id){
+        return employeeRepository.getReferenceById(id);
+    }
 }
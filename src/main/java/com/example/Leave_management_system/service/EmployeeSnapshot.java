@@ -0,0 +1,22 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.model.Employee;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/** Immutable, cacheable view of the Employee fields the leave workflow reads. */
+@Value
+public class EmployeeSnapshot {
+    Long id;
+    String name;
+    String department;
+    boolean hr;
+    LocalDate joiningDate;
+    Integer annualAllocationDays;
+
+    static EmployeeSnapshot of(Employee e) {
+        return new EmployeeSnapshot(e.getId(), e.getName(), e.getDepartment(), e.isHr(),
+                e.getJoiningDate(), e.getAnnualAllocationDays());
+    }
+}
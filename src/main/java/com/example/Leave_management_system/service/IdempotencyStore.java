@@ -0,0 +1,122 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.Repository.IdempotencyKeyRepository;
+import com.example.Leave_management_system.dto.ApplyLeaveRequest;
+import com.example.Leave_management_system.exception.BadRequestException;
+import com.example.Leave_management_system.model.IdempotencyKey;
+import com.example.Leave_management_system.model.IdempotencyKeyId;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Idempotency-Key results for apply(): idempotency_keys is the source of truth (committed
+ * with the leave, so every node sees it), fronted by a Caffeine cache so a retry is
+ * answered without touching the DB. Rows live ttlHours and are purged hourly.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private record Stored(Long leaveId, String requestHash, LocalDateTime expiresAt) {}
+
+    private final IdempotencyKeyRepository repo;
+    private final Duration ttl;
+    private final Cache<IdempotencyKeyId, Stored> cache;
+
+    public IdempotencyStore(IdempotencyKeyRepository repo,
+                            MeterRegistry meters,
+                            @Value("${leave.idempotency.ttl-hours:24}") long ttlHours,
+                            @Value("${leave.idempotency.cache-size:10000}") long cacheSize) {
+        this.repo = repo;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meters, cache, "idempotency_keys");
+    }
+
+    /** Stored leaveId for this key, if any; the key must have been used with the same request. */
+    public Optional<Long> find(Long employeeId, String key, String requestHash) {
+        var id = new IdempotencyKeyId(employeeId, key);
+        var stored = cache.getIfPresent(id);
+        if (stored == null) {
+            stored = repo.findById(id)
+                    .map(k -> new Stored(k.getLeaveId(), k.getRequestHash(), k.getExpiresAt()))
+                    .orElse(null);
+            if (stored == null) return Optional.empty();
+            cache.put(id, stored);
+        }
+        if (stored.expiresAt().isBefore(LocalDateTime.now())) return Optional.empty();
+        if (!stored.requestHash().equals(requestHash))
+            throw new BadRequestException("Idempotency-Key was already used with a different request");
+        return Optional.of(stored.leaveId());
+    }
+
+    /**
+     * Saves the key with the leave's transaction; cached only once that commits. Flushed
+     * here, so a key another node has just committed fails now as a DataIntegrityViolationException.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long employeeId, String key, String requestHash, Long leaveId) {
+        var id = new IdempotencyKeyId(employeeId, key);
+        var expiresAt = LocalDateTime.now().plus(ttl);
+        repo.saveAndFlush(IdempotencyKey.builder()
+                .id(id)
+                .leaveId(leaveId)
+                .requestHash(requestHash)
+                .expiresAt(expiresAt)
+                .build());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.put(id, new Stored(leaveId, requestHash, expiresAt));
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${leave.idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int n = repo.deleteExpired(LocalDateTime.now());
+        if (n > 0) log.info("purged {} expired idempotency keys", n);
+    }
+
+    public static void validate(String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH)
+            throw new BadRequestException("Idempotency-Key must be 1.." + MAX_KEY_LENGTH + " characters");
+    }
+
+    /** Fingerprint of everything that shapes the leave; a retry must send the same body. */
+    public static String hash(ApplyLeaveRequest req) {
+        var canonical = req.getEmployeeId() + "|" + req.getStartDate() + "|" + req.getEndDate() + "|"
+                + req.getType() + "|" + (req.getReason() != null ? req.getReason() : "");
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex); // SHA-256 is mandatory on every JRE
+        }
+    }
+}
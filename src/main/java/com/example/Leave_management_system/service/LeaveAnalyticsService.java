@@ -0,0 +1,233 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.Repository.ArchivedLeaveRepository;
+import com.example.Leave_management_system.Repository.EmployeeRepository;
+import com.example.Leave_management_system.Repository.LeaveRequestRepository;
+import com.example.Leave_management_system.Repository.LeaveUsageRollupRepository;
+import com.example.Leave_management_system.dto.LeaveUsageResponse;
+import com.example.Leave_management_system.exception.BadRequestException;
+import com.example.Leave_management_system.model.LeaveStatus;
+import com.example.Leave_management_system.model.LeaveUsageRollup;
+import com.example.Leave_management_system.model.LeaveUsageRollupId;
+import com.example.Leave_management_system.model.LeaveUsageRollupLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Leave usage by department x type x month, served from leave_usage_rollups.
+ * A status transition only records its deltas in the publisher's transaction; they are
+ * upserted after it commits, in one short transaction of their own, so transitions do not
+ * queue on the hot (department, type, month) row while holding their leave and employee
+ * locks. recompute() rebuilds the rollups from leave_requests with one fork-join task and
+ * one transaction per department, and repairs deltas lost to a failed after-commit write.
+ *
+ * Each department has a row in leave_usage_rollup_locks. A transition takes it shared in its
+ * own transaction and notes its generation; a recompute takes it exclusive and bumps the
+ * generation. If the generation has moved when the deltas are applied, a recompute ran
+ * after the transition committed and already counted it, so its deltas are dropped.
+ */
+@Slf4j
+@Service
+public class LeaveAnalyticsService {
+
+    private final LeaveUsageRollupRepository rollupRepo;
+    private final LeaveRequestRepository leaveRepo;
+    private final ArchivedLeaveRepository archiveRepo;
+    private final EmployeeRepository employeeRepo;
+    private final EmployeeService employeeService;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate afterCommitTx;
+    private final int parallelism;
+
+    public LeaveAnalyticsService(LeaveUsageRollupRepository rollupRepo,
+                                 LeaveRequestRepository leaveRepo,
+                                 ArchivedLeaveRepository archiveRepo,
+                                 EmployeeRepository employeeRepo,
+                                 EmployeeService employeeService,
+                                 PlatformTransactionManager txManager,
+                                 @Value("${leave.analytics.recompute-parallelism:4}") int parallelism) {
+        this.rollupRepo = rollupRepo;
+        this.leaveRepo = leaveRepo;
+        this.archiveRepo = archiveRepo;
+        this.employeeRepo = employeeRepo;
+        this.employeeService = employeeService;
+        this.tx = new TransactionTemplate(txManager);
+        this.afterCommitTx = new TransactionTemplate(txManager);
+        this.afterCommitTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.parallelism = parallelism;
+    }
+
+    // ---------- incremental maintenance (counted in the publisher's transaction, applied after commit) ----------
+    @EventListener
+    public void onLeaveChanged(LeaveChangedEvent e) {
+        var dept = employeeService.getOrThrow(e.employeeId()).getDepartment();
+        var deltas = pendingDeltas();
+        deltas.generations.computeIfAbsent(dept, d -> lockDepartment(d, false).getGeneration());
+        var d = deltas.buckets.computeIfAbsent(new Bucket(dept, e.type().name(), monthKey(e.startDate())), k -> new int[5]);
+        if (e.previousStatus() == null) d[0]++;
+        if (e.previousStatus() == LeaveStatus.PENDING) d[1]--;
+        switch (e.status()) {
+            case PENDING -> d[1]++;
+            case APPROVED -> { d[2]++; d[3] += e.days(); }
+            case REJECTED -> d[4]++;
+        }
+    }
+
+    private record Bucket(String department, String type, int month) {}
+
+    private static final Comparator<Bucket> BUCKET_ORDER = Comparator.comparing(Bucket::department)
+            .thenComparing(Bucket::type).thenComparingInt(Bucket::month);
+
+    /** Deltas of one transaction: {requested, pending, approved, approvedDays, rejected} per bucket. */
+    private static final class Deltas {
+        final Map<String, Long> generations = new TreeMap<>(); // shared locks in one order too
+        final Map<Bucket, int[]> buckets = new TreeMap<>(BUCKET_ORDER); // one upsert order: no deadlocks
+    }
+
+    private Deltas pendingDeltas() {
+        var deltas = (Deltas) TransactionSynchronizationManager.getResource(this);
+        if (deltas != null) return deltas;
+        var created = new Deltas();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() { applyDeltas(created); }
+
+            @Override
+            public void afterCompletion(int status) { TransactionSynchronizationManager.unbindResource(LeaveAnalyticsService.this); }
+        });
+        return created;
+    }
+
+    private void applyDeltas(Deltas deltas) {
+        try {
+            afterCommitTx.executeWithoutResult(s -> {
+                Set<String> recomputed = new HashSet<>();
+                deltas.generations.forEach((dept, generation) -> {
+                    if (lockDepartment(dept, false).getGeneration() != generation) recomputed.add(dept);
+                });
+                deltas.buckets.forEach((b, d) -> {
+                    if (!recomputed.contains(b.department()))
+                        rollupRepo.increment(b.department(), b.type(), b.month(), d[0], d[1], d[2], d[3], d[4]);
+                });
+            });
+        } catch (RuntimeException ex) {
+            // the leave change is committed either way; the next recompute repairs the rollups
+            log.warn("leave usage rollup increment lost for {}: {}", deltas.generations.keySet(), ex.toString());
+        }
+    }
+
+    // ---------- report ----------
+    @Transactional(readOnly = true)
+    public LeaveUsageResponse usage(String fromMonth, String toMonth, String department) {
+        var from = parseMonth(fromMonth);
+        var to = parseMonth(toMonth);
+        if (to.isBefore(from)) throw new BadRequestException("toMonth before fromMonth");
+
+        int f = from.getYear() * 100 + from.getMonthValue();
+        int t = to.getYear() * 100 + to.getMonthValue();
+        var rows = department == null || department.isBlank()
+                ? rollupRepo.findMonthRange(f, t)
+                : rollupRepo.findMonthRangeByDepartment(department, f, t);
+
+        return LeaveUsageResponse.builder()
+                .fromMonth(from.toString())
+                .toMonth(to.toString())
+                .rows(rows.stream().map(LeaveAnalyticsService::toRow).toList())
+                .build();
+    }
+
+    // ---------- full recompute: one partition per department ----------
+    public Map<String, Integer> recompute() {
+        var departments = employeeRepo.findDistinctDepartments();
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (var dept : departments) tasks.add(() -> tx.execute(s -> recomputeDepartment(dept)));
+
+        Map<String, Integer> rowsWritten = new TreeMap<>();
+        var pool = new ForkJoinPool(parallelism);
+        try {
+            var results = pool.invokeAll(tasks);
+            for (int i = 0; i < departments.size(); i++) rowsWritten.put(departments.get(i), results.get(i).get());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("rollup recompute interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("rollup recompute failed", ex.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        log.info("leave usage rollups recomputed for {} departments", departments.size());
+        return rowsWritten;
+    }
+
+    private int recomputeDepartment(String dept) {
+        var lock = lockDepartment(dept, true); // before the reads: waits for in-flight transitions to commit
+        lock.setGeneration(lock.getGeneration() + 1); // their pending deltas are counted below
+        Map<LeaveUsageRollupId, LeaveUsageRollup> rows = new HashMap<>();
+        var usage = new ArrayList<>(leaveRepo.aggregateUsageByDepartment(dept));
+        usage.addAll(archiveRepo.aggregateUsageByDepartment(dept)); // archived leaves still count
+        for (var r : usage) {
+            var id = new LeaveUsageRollupId(dept, r.getType(), r.getYear() * 100 + r.getMonth());
+            var row = rows.computeIfAbsent(id, k -> LeaveUsageRollup.builder().id(k).build());
+            int count = r.getCount().intValue();
+            row.setRequestedCount(row.getRequestedCount() + count);
+            switch (r.getStatus()) {
+                case PENDING -> row.setPendingCount(row.getPendingCount() + count);
+                case APPROVED -> {
+                    row.setApprovedCount(row.getApprovedCount() + count);
+                    row.setApprovedDays(row.getApprovedDays() + r.getDays().intValue());
+                }
+                case REJECTED -> row.setRejectedCount(row.getRejectedCount() + count);
+            }
+        }
+        rollupRepo.deleteByDepartment(dept);
+        rollupRepo.saveAll(rows.values());
+        return rows.size();
+    }
+
+    private LeaveUsageRollupLock lockDepartment(String dept, boolean exclusive) {
+        var lock = lock(dept, exclusive);
+        if (lock.isPresent()) return lock.get();
+        rollupRepo.createDepartmentLock(dept);
+        return lock(dept, exclusive).orElseThrow(); // created above or by a concurrent first use
+    }
+
+    private Optional<LeaveUsageRollupLock> lock(String dept, boolean exclusive) {
+        return exclusive ? rollupRepo.lockDepartmentExclusive(dept) : rollupRepo.lockDepartmentShared(dept);
+    }
+
+    private static int monthKey(LocalDate d) {
+        return d.getYear() * 100 + d.getMonthValue();
+    }
+
+    private static YearMonth parseMonth(String s) {
+        try {
+            return YearMonth.parse(s);
+        } catch (DateTimeParseException | NullPointerException ex) {
+            throw new BadRequestException("month must be yyyy-MM: " + s);
+        }
+    }
+
+    private static LeaveUsageResponse.Row toRow(LeaveUsageRollup r) {
+        int m = r.getId().getMonth();
+        return new LeaveUsageResponse.Row(r.getId().getDepartment(), r.getId().getType().name(),
+                YearMonth.of(m / 100, m % 100).toString(),
+                r.getRequestedCount(), r.getPendingCount(), r.getApprovedCount(), r.getApprovedDays(), r.getRejectedCount());
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.Repository.ArchivedLeaveRepository;
+import com.example.Leave_management_system.Repository.LeaveRequestRepository;
+import com.example.Leave_management_system.dto.ArchiveRunResponse;
+import com.example.Leave_management_system.exception.ConflictException;
+import com.example.Leave_management_system.model.LeaveRequest;
+import com.example.Leave_management_system.model.LeaveStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hot/cold split of leave_requests. Closed (APPROVED/REJECTED) leaves that ended before
+ * cutoff() are moved to leave_requests_archive in batches of batchSize, one short
+ * transaction per batch (lock with SKIP LOCKED, insert-select, delete), at most
+ * maxBatches per pass. The hot table and its indexes then only hold open leaves and the
+ * last keepYears years, however much history accumulates.
+ *
+ * keepYears must be at least 1: the year-end carry-forward and balance checks read last
+ * year's leaves from the hot table. Applying for dates before the cutoff is refused.
+ */
+@Slf4j
+@Service
+public class LeaveArchiveService {
+
+    private static final List<LeaveStatus> CLOSED = List.of(LeaveStatus.APPROVED, LeaveStatus.REJECTED);
+
+    private final LeaveRequestRepository leaveRepo;
+    private final ArchivedLeaveRepository archiveRepo;
+    private final LeaveSearchIndex searchIndex;
+    private final TransactionTemplate tx;
+    private final boolean enabled;
+    private final int keepYears;
+    private final int batchSize;
+    private final int maxBatches;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter archivedCounter;
+    private final Timer batchTimer;
+
+    public LeaveArchiveService(LeaveRequestRepository leaveRepo,
+                               ArchivedLeaveRepository archiveRepo,
+                               LeaveSearchIndex searchIndex,
+                               PlatformTransactionManager txManager,
+                               MeterRegistry meters,
+                               @Value("${leave.archive.enabled:true}") boolean enabled,
+                               @Value("${leave.archive.keep-years:2}") int keepYears,
+                               @Value("${leave.archive.batch-size:500}") int batchSize,
+                               @Value("${leave.archive.max-batches:200}") int maxBatches) {
+        if (keepYears < 1) throw new IllegalArgumentException("leave.archive.keep-years must be >= 1: " + keepYears);
+        this.leaveRepo = leaveRepo;
+        this.archiveRepo = archiveRepo;
+        this.searchIndex = searchIndex;
+        this.tx = new TransactionTemplate(txManager);
+        this.enabled = enabled;
+        this.keepYears = keepYears;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.archivedCounter = meters.counter("leave.archive.moved");
+        this.batchTimer = Timer.builder("leave.archive.batch").publishPercentileHistogram().register(meters);
+    }
+
+    /** January 1st, keepYears years back: closed leaves ending before it are archived. */
+    public LocalDate cutoff() {
+        return LocalDate.of(LocalDate.now().getYear() - keepYears, 1, 1);
+    }
+
+    @Scheduled(cron = "${leave.archive.cron:0 0 2 * * *}")
+    public void scheduledRun() {
+        if (!enabled) return;
+        try {
+            archive();
+        } catch (ConflictException ex) {
+            log.info("scheduled archival skipped: {}", ex.getMessage());
+        }
+    }
+
+    public ArchiveRunResponse archive() {
+        if (!running.compareAndSet(false, true)) throw new ConflictException("an archival run is already in progress");
+        try {
+            long t0 = System.nanoTime();
+            var cutoff = cutoff();
+            long moved = 0;
+            int batches = 0;
+            boolean complete = false;
+            while (batches < maxBatches) {
+                Integer n = tx.execute(s -> moveBatch(cutoff));
+                batches++;
+                moved += n;
+                if (n < batchSize) {
+                    complete = true;
+                    break;
+                }
+            }
+            long ms = (System.nanoTime() - t0) / 1_000_000;
+            if (moved > 0) log.info("archived {} leaves ending before {} in {} batches, {} ms", moved, cutoff, batches, ms);
+            return ArchiveRunResponse.builder()
+                    .cutoff(cutoff).archived(moved).batches(batches).complete(complete).elapsedMs(ms)
+                    .build();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int moveBatch(LocalDate cutoff) {
+        var sample = Timer.start();
+        var ids = leaveRepo.lockArchivable(CLOSED, cutoff, PageRequest.of(0, batchSize)).stream()
+                .map(LeaveRequest::getId).toList();
+        if (!ids.isEmpty()) {
+            archiveRepo.copyFromHot(ids, LocalDateTime.now());
+            leaveRepo.deleteAllByIdIn(ids);
+            archivedCounter.increment(ids.size());
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() { searchIndex.remove(ids); }
+            });
+        }
+        sample.stop(batchTimer);
+        return ids.size();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.model.LeaveStatus;
+import com.example.Leave_management_system.model.LeaveType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDate;
+
+/**
+ * Published by LeaveService on every state change (apply = null -> PENDING).
+ * In-memory indexes listen after commit; in-transaction writers listen synchronously.
+ * The free-text fields feed the search index only and stay out of the outbox payload.
+ */
+public record LeaveChangedEvent(
+        Long leaveId,
+        Long employeeId,
+        LeaveType type,
+        LeaveStatus previousStatus,
+        LeaveStatus status,
+        LocalDate startDate,
+        LocalDate endDate,
+        int days,
+        @JsonIgnore String reason,
+        @JsonIgnore String decisionNote
+) {
+    /** true while the leave still blocks its date range (PENDING/APPROVED) */
+    public boolean active() {
+        return status == LeaveStatus.PENDING || status == LeaveStatus.APPROVED;
+    }
+}
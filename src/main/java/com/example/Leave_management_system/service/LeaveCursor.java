@@ -0,0 +1,30 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/** Opaque keyset cursor: base64url("createdAt|id") of the last row returned. */
+record LeaveCursor(LocalDateTime createdAt, Long id) {
+
+    /** Sorts after every real row, so the first page uses the same query as the rest. */
+    static final LeaveCursor START = new LeaveCursor(LocalDateTime.of(9999, 12, 31, 23, 59), Long.MAX_VALUE);
+
+    static LeaveCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return START;
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new LeaveCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException ex) {
+            throw new BadRequestException("invalid cursor");
+        }
+    }
+
+    String encode() {
+        var raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.dto.LeaveDto;
+import com.example.Leave_management_system.exception.BadRequestException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/** Writes LeaveService.exportLeaves rows as CSV or NDJSON, one row at a time. */
+@Component
+@RequiredArgsConstructor
+public class LeaveExporter {
+
+    public enum Format {
+        CSV("text/csv"), NDJSON("application/x-ndjson");
+
+        public final String contentType;
+        Format(String contentType) { this.contentType = contentType; }
+
+        public static Format parse(String s) {
+            try {
+                return Format.valueOf(s.toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                throw new BadRequestException("invalid format: " + s + " (csv|ndjson)");
+            }
+        }
+    }
+
+    private static final String CSV_HEADER = "id,employeeId,employeeName,department,type,status,days,"
+            + "startDate,endDate,reason,approverId,approverName,decisionNote,createdAt,updatedAt";
+
+    private final LeaveService leaveService;
+    private final ObjectMapper objectMapper;
+
+    public void write(Format format, LeaveService.ExportQuery query, OutputStream out) throws IOException {
+        var w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        // one generator for every row, flushed once at the end: a flush per row would push
+        // each row through the servlet/gzip streams on its own
+        var gen = objectMapper.getFactory().createGenerator(w)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setPrettyPrinter(new MinimalPrettyPrinter("\n")); // separator between rows
+        ObjectWriter json = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        if (format == Format.CSV) w.write(CSV_HEADER + "\n");
+        try {
+            long rows = leaveService.exportLeaves(query, dto -> {
+                try {
+                    if (format == Format.CSV) {
+                        w.write(csvRow(dto));
+                        w.write('\n');
+                    } else {
+                        json.writeValue(gen, dto);
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            if (format == Format.NDJSON && rows > 0) gen.writeRaw('\n'); // after the last row
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause(); // client went away; the stream rolls back and closes the cursor
+        }
+        gen.flush(); // also flushes w
+    }
+
+    private static String csvRow(LeaveDto d) {
+        return String.join(",",
+                csv(d.getId()), csv(d.getEmployeeId()), csv(d.getEmployeeName()), csv(d.getDepartment()),
+                csv(d.getType()), csv(d.getStatus()), csv(d.getDays()), csv(d.getStartDate()), csv(d.getEndDate()),
+                csv(d.getReason()), csv(d.getApproverId()), csv(d.getApproverName()), csv(d.getDecisionNote()),
+                csv(d.getCreatedAt()), csv(d.getUpdatedAt()));
+    }
+
+    private static String csv(Object v) {
+        if (v == null) return "";
+        var s = v.toString();
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+}
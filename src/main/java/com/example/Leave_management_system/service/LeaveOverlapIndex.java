@@ -0,0 +1,185 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.Repository.LeaveRequestRepository;
+import com.example.Leave_management_system.model.LeaveStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-employee index of PENDING/APPROVED date ranges used by apply() for overlap checks.
+ *
+ * Each employee's ranges are kept as arrays sorted by start day plus a running max of
+ * end days, so a check is one binary search. Entries are loaded lazily from the DB,
+ * kept current from LeaveChangedEvent after commit, evicted LRU beyond maxEmployees
+ * and expired after ttlMinutes.
+ *
+ * Only this node's writes reach the index, so a leave applied or cancelled on another
+ * node is missed until the entry expires. It is for single-node deployments; with more
+ * than one node disable it, and every check goes straight to the DB query.
+ */
+@Component
+public class LeaveOverlapIndex {
+
+    private static final List<LeaveStatus> BLOCKING = List.of(LeaveStatus.PENDING, LeaveStatus.APPROVED);
+    private static final int STRIPES = 1024;
+
+    private final LeaveRequestRepository leaveRepo;
+    private final boolean enabled;
+    private final int maxEmployees;
+    private final long ttlMillis;
+
+    private final Map<Long, Ranges> cache;
+    // bumped on every change for an employee; a load that raced a change is not cached
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+
+    private final Counter hits;
+    private final Counter loads;
+
+    public LeaveOverlapIndex(LeaveRequestRepository leaveRepo,
+                             MeterRegistry meters,
+                             @Value("${leave.overlap-index.enabled:true}") boolean enabled,
+                             @Value("${leave.overlap-index.max-employees:10000}") int maxEmployees,
+                             @Value("${leave.overlap-index.ttl-minutes:10}") long ttlMinutes) {
+        this.leaveRepo = leaveRepo;
+        this.enabled = enabled;
+        this.maxEmployees = maxEmployees;
+        this.ttlMillis = ttlMinutes * 60_000;
+        this.hits = meters.counter("leave.overlap_index.lookups", "result", "hit");
+        this.loads = meters.counter("leave.overlap_index.lookups", "result", "load");
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Ranges> eldest) {
+                return size() > LeaveOverlapIndex.this.maxEmployees;
+            }
+        };
+    }
+
+    public boolean overlaps(Long employeeId, LocalDate start, LocalDate end) {
+        if (!enabled) {
+            return leaveRepo.existsByEmployee_IdAndStatusInAndEndDateGreaterThanEqualAndStartDateLessThanEqual(
+                    employeeId, BLOCKING, start, end);
+        }
+        return rangesOf(employeeId).overlaps(start.toEpochDay(), end.toEpochDay());
+    }
+
+    private Ranges rangesOf(Long employeeId) {
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            var r = cache.get(employeeId);
+            if (r != null && r.loadedAt + ttlMillis > now) {
+                hits.increment();
+                return r;
+            }
+        }
+        loads.increment();
+        int stripe = stripe(employeeId);
+        long stamp = stamps.get(stripe);
+        var loaded = Ranges.of(leaveRepo.findRangesByEmployee(employeeId, BLOCKING), now);
+        synchronized (cache) {
+            if (stamps.get(stripe) == stamp) cache.put(employeeId, loaded);
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener
+    public void onLeaveChanged(LeaveChangedEvent e) {
+        boolean wasActive = e.previousStatus() != null && BLOCKING.contains(e.previousStatus());
+        if (!enabled || wasActive == e.active()) return; // PENDING -> APPROVED keeps the same range
+        stamps.incrementAndGet(stripe(e.employeeId()));
+        synchronized (cache) {
+            var r = cache.get(e.employeeId());
+            if (r == null) return; // next check loads it from the DB
+            cache.put(e.employeeId(), e.active()
+                    ? r.with(e.leaveId(), e.startDate().toEpochDay(), e.endDate().toEpochDay())
+                    : r.without(e.leaveId()));
+        }
+    }
+
+    /** Drop one employee (or everything) after out-of-band changes. */
+    public void invalidate(Long employeeId) {
+        stamps.incrementAndGet(stripe(employeeId));
+        synchronized (cache) { cache.remove(employeeId); }
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) stamps.incrementAndGet(i);
+        synchronized (cache) { cache.clear(); }
+    }
+
+    private static int stripe(Long employeeId) {
+        return (int) (employeeId & (STRIPES - 1));
+    }
+
+    // ---------- immutable per-employee range set ----------
+    static final class Ranges {
+        final long[] ids;
+        final long[] starts;   // sorted ascending
+        final long[] ends;     // aligned with starts
+        final long[] maxEnd;   // maxEnd[i] = max(ends[0..i])
+        final long loadedAt;
+
+        private Ranges(long[] ids, long[] starts, long[] ends, long loadedAt) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.loadedAt = loadedAt;
+            this.maxEnd = new long[ends.length];
+            long m = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) maxEnd[i] = m = Math.max(m, ends[i]);
+        }
+
+        static Ranges of(List<LeaveRequestRepository.DateRangeRow> rows, long loadedAt) {
+            var sorted = new ArrayList<>(rows);
+            sorted.sort(Comparator.comparing(LeaveRequestRepository.DateRangeRow::getStartDate));
+            int n = sorted.size();
+            long[] ids = new long[n], s = new long[n], e = new long[n];
+            for (int i = 0; i < n; i++) {
+                var row = sorted.get(i);
+                ids[i] = row.getId();
+                s[i] = row.getStartDate().toEpochDay();
+                e[i] = row.getEndDate().toEpochDay();
+            }
+            return new Ranges(ids, s, e, loadedAt);
+        }
+
+        boolean overlaps(long start, long end) {
+            // last range starting on/before 'end'; any earlier range reaching 'start' overlaps
+            int i = Arrays.binarySearch(starts, end);
+            if (i < 0) i = -i - 2;
+            else while (i + 1 < starts.length && starts[i + 1] == end) i++;
+            return i >= 0 && maxEnd[i] >= start;
+        }
+
+        Ranges with(long id, long start, long end) {
+            int n = starts.length;
+            int pos = Arrays.binarySearch(starts, start);
+            if (pos < 0) pos = -pos - 1;
+            long[] i2 = new long[n + 1], s2 = new long[n + 1], e2 = new long[n + 1];
+            System.arraycopy(ids, 0, i2, 0, pos);
+            System.arraycopy(starts, 0, s2, 0, pos);
+            System.arraycopy(ends, 0, e2, 0, pos);
+            i2[pos] = id; s2[pos] = start; e2[pos] = end;
+            System.arraycopy(ids, pos, i2, pos + 1, n - pos);
+            System.arraycopy(starts, pos, s2, pos + 1, n - pos);
+            System.arraycopy(ends, pos, e2, pos + 1, n - pos);
+            return new Ranges(i2, s2, e2, loadedAt);
+        }
+
+        Ranges without(long id) {
+            int n = ids.length, k = 0;
+            long[] i2 = new long[n], s2 = new long[n], e2 = new long[n];
+            for (int i = 0; i < n; i++) {
+                if (ids[i] == id) continue;
+                i2[k] = ids[i]; s2[k] = starts[i]; e2[k] = ends[i]; k++;
+            }
+            return new Ranges(Arrays.copyOf(i2, k), Arrays.copyOf(s2, k), Arrays.copyOf(e2, k), loadedAt);
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.Repository.LeaveRequestRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Full-text index over leave reason, decision note and employee name for /leaves/search.
+ *
+ * Each field maps its terms to a sorted int array of leave ids; names are posted per leave,
+ * so a query never expands employees into their leaves. Built once before the web server
+ * starts from a forward-only scan of leave_requests, then kept current from
+ * LeaveChangedEvent after commit (apply brings the reason, a decision the note).
+ * Archived leaves are tombstoned and purged from the postings in bulk.
+ *
+ * A query matches leaves holding every term in some field. Each term scores its field
+ * weight x idf, ties go to the newest leave. When disabled, LeaveService falls back
+ * to a LIKE query.
+ *
+ * A load builds fresh postings without the lock, so searches and after-commit events keep
+ * running against the old ones; the write lock is only taken to swap them in and replay
+ * the events buffered meanwhile. Adding a posting twice is a no-op, so replaying an event
+ * the scan already saw is harmless.
+ *
+ * Postings are only ever added from this node's own commits, so the index misses leaves
+ * written by other nodes and keeps an employee's old name after a rename. Both are
+ * corrected by a full rebuild (leave.search.rebuild-cron, off by default); multi-node
+ * deployments should schedule one or disable the index.
+ */
+@Slf4j
+@Component
+public class LeaveSearchIndex implements SmartInitializingSingleton {
+
+    /** deepest hit a page may reach: ranking keeps the top offset+size hits in a heap */
+    public static final int MAX_HITS = 10_000;
+
+    private static final float NAME = 3f, REASON = 2f, NOTE = 1f;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "at", "for", "in", "is", "my", "of", "on", "the", "to", "with");
+    private static final int PURGE_MIN = 10_000;
+
+    public record Hits(long total, List<Long> ids) {}
+
+    private final LeaveRequestRepository leaveRepo;
+    private final EmployeeService employeeService;
+    private final TransactionTemplate readTx;
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Postings postings = new Postings(); // guarded by lock
+
+    // changes committed while a load scans; null otherwise
+    private final Object loadLock = new Object();
+    private List<Consumer<Postings>> buffered;
+
+    public LeaveSearchIndex(LeaveRequestRepository leaveRepo,
+                            EmployeeService employeeService,
+                            PlatformTransactionManager txManager,
+                            MeterRegistry meters,
+                            @Value("${leave.search.enabled:true}") boolean enabled) {
+        this.leaveRepo = leaveRepo;
+        this.employeeService = employeeService;
+        this.readTx = new TransactionTemplate(txManager);
+        this.readTx.setReadOnly(true);
+        this.enabled = enabled;
+        meters.gauge("leave.search.docs", this, LeaveSearchIndex::size);
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) return;
+        load();
+    }
+
+    /** Rebuilds from leave_requests, picking up other nodes' writes and renames; searches use the old index meanwhile. */
+    @Scheduled(cron = "${leave.search.rebuild-cron:-}")
+    public void rebuild() {
+        if (!enabled) return;
+        load();
+    }
+
+    private void load() {
+        synchronized (loadLock) {
+            if (buffered != null) return; // a load is running
+            buffered = new ArrayList<>();
+        }
+        long t0 = System.nanoTime();
+        var fresh = new Postings();
+        try {
+            readTx.executeWithoutResult(s -> {
+                try (var rows = leaveRepo.streamSearchRows()) {
+                    rows.forEach(r -> fresh.index(r.getId(), r.getEmployeeName(), r.getReason(), r.getDecisionNote()));
+                }
+            });
+        } catch (RuntimeException ex) {
+            synchronized (loadLock) { // keep the old postings, and what was buffered for them
+                var missed = buffered;
+                buffered = null;
+                write(p -> missed.forEach(c -> c.accept(p)));
+            }
+            throw ex;
+        }
+        synchronized (loadLock) { // new changes wait here until the buffered ones are replayed
+            write(p -> {
+                for (var c : buffered) c.accept(fresh);
+                postings = fresh;
+            });
+            buffered = null;
+        }
+        log.info("search index: {} leaves, {} terms in {} ms", fresh.docs, fresh.terms(),
+                (System.nanoTime() - t0) / 1_000_000);
+    }
+
+    @TransactionalEventListener
+    public void onLeaveChanged(LeaveChangedEvent e) {
+        if (!enabled) return;
+        var name = employeeService.getOrThrow(e.employeeId()).getName(); // cached snapshot
+        change(p -> p.index(e.leaveId(), name, e.reason(), e.decisionNote()));
+    }
+
+    /** Leaves moved to the archive; called after their batch commits. */
+    public void remove(Collection<Long> leaveIds) {
+        if (!enabled) return;
+        var ids = List.copyOf(leaveIds);
+        change(p -> p.remove(ids));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return postings.docs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Ranked leave ids for hits [offset, offset + limit) and the total number of hits. */
+    public Hits search(String query, int offset, int limit) {
+        var terms = tokens(query);
+        if (terms.isEmpty()) return new Hits(0, List.of());
+        lock.readLock().lock();
+        try {
+            List<Scored> perTerm = new ArrayList<>(terms.size());
+            for (var t : terms) {
+                var s = match(t);
+                if (s.size == 0) return new Hits(0, List.of());
+                perTerm.add(s);
+            }
+            perTerm.sort(Comparator.comparingInt(s -> s.size)); // rarest first keeps the intersection small
+            var acc = perTerm.get(0);
+            for (int i = 1; i < perTerm.size() && acc.size > 0; i++) acc = acc.and(perTerm.get(i));
+            return acc.top(offset, limit, postings.archived);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------- updating ----------
+    /** Applies a committed change now, or buffers it for the fresh postings while a load scans. */
+    private void change(Consumer<Postings> c) {
+        synchronized (loadLock) {
+            if (buffered != null) {
+                buffered.add(c);
+                return;
+            }
+        }
+        write(c);
+    }
+
+    private void write(Consumer<Postings> c) {
+        lock.writeLock().lock();
+        try {
+            c.accept(postings);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ---------- querying (caller holds the read lock) ----------
+    private Scored match(String term) {
+        var out = Scored.EMPTY;
+        var reasonTerms = postings.reasonTerms;
+        var noteTerms = postings.noteTerms;
+        var nameTerms = postings.nameTerms;
+        var reason = reasonTerms.get(term);
+        if (reason != null) out = out.or(new Scored(reason.a, reason.n, null, REASON * idf(reason.n)));
+        var note = noteTerms.get(term);
+        if (note != null) out = out.or(new Scored(note.a, note.n, null, NOTE * idf(note.n)));
+        var name = nameTerms.get(term);
+        if (name != null) out = out.or(new Scored(name.a, name.n, null, NAME * idf(name.n)));
+        return out;
+    }
+
+    private float idf(int df) {
+        return (float) Math.log(1 + (double) Math.max(postings.docs, 1) / df);
+    }
+
+    static Set<String> tokens(String text) {
+        if (text == null || text.isEmpty()) return Set.of();
+        Set<String> out = new LinkedHashSet<>();
+        var s = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= s.length(); i++) {
+            boolean word = i < s.length() && Character.isLetterOrDigit(s.charAt(i));
+            if (word && start < 0) start = i;
+            if (!word && start >= 0) {
+                var t = s.substring(start, i);
+                if (t.length() > 1 && !STOP_WORDS.contains(t)) out.add(t);
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    // ---------- one generation of postings; built off-lock by a load, then mutated under the write lock ----------
+    private static final class Postings {
+        final Map<String, IntList> reasonTerms = new HashMap<>();
+        final Map<String, IntList> noteTerms = new HashMap<>();
+        final Map<String, IntList> nameTerms = new HashMap<>();
+        final BitSet indexed = new BitSet();   // leave ids
+        final BitSet archived = new BitSet();  // tombstones until the next purge
+        int docs;
+        int tombstones;
+
+        void index(Long leaveId, String name, String reason, String note) {
+            int doc = Math.toIntExact(leaveId);
+            if (!indexed.get(doc)) {
+                indexed.set(doc);
+                docs++;
+                for (var t : tokens(name)) nameTerms.computeIfAbsent(t, k -> new IntList()).add(doc);
+            }
+            for (var t : tokens(reason)) reasonTerms.computeIfAbsent(t, k -> new IntList()).add(doc);
+            for (var t : tokens(note)) noteTerms.computeIfAbsent(t, k -> new IntList()).add(doc);
+        }
+
+        void remove(Collection<Long> leaveIds) {
+            for (var id : leaveIds) {
+                int doc = Math.toIntExact(id);
+                if (!indexed.get(doc) || archived.get(doc)) continue;
+                archived.set(doc);
+                tombstones++;
+                docs--;
+            }
+            if (tombstones >= Math.max(PURGE_MIN, docs / 8)) purge();
+        }
+
+        private void purge() {
+            long t0 = System.nanoTime();
+            for (var postings : List.of(reasonTerms, noteTerms, nameTerms)) {
+                postings.values().removeIf(list -> list.removeAll(archived) == 0);
+            }
+            indexed.andNot(archived);
+            archived.clear();
+            tombstones = 0;
+            log.info("search index: purged archived leaves in {} ms", (System.nanoTime() - t0) / 1_000_000);
+        }
+
+        int terms() {
+            return reasonTerms.size() + noteTerms.size() + nameTerms.size();
+        }
+    }
+
+    // ---------- sorted int set, the posting list ----------
+    private static final class IntList {
+        int[] a = new int[4];
+        int n;
+
+        /** false if already present; appends in id order are O(1) */
+        boolean add(int v) {
+            int pos = n;
+            if (n > 0 && a[n - 1] >= v) {
+                pos = Arrays.binarySearch(a, 0, n, v);
+                if (pos >= 0) return false;
+                pos = -pos - 1;
+            }
+            if (n == a.length) a = Arrays.copyOf(a, n + (n >> 1) + 1);
+            System.arraycopy(a, pos, a, pos + 1, n - pos);
+            a[pos] = v;
+            n++;
+            return true;
+        }
+
+        /** drops every value set in dead; returns the remaining size */
+        int removeAll(BitSet dead) {
+            int k = 0;
+            for (int i = 0; i < n; i++) if (!dead.get(a[i])) a[k++] = a[i];
+            n = k;
+            return n;
+        }
+    }
+
+    // ---------- hits of one term or of an intersection: sorted ids with scores ----------
+    static final class Scored {
+        static final Scored EMPTY = new Scored(new int[0], 0, null, 0f);
+
+        final int[] ids;
+        final int size;
+        final float[] scores; // null: every hit scores 'constant'
+        final float constant;
+
+        Scored(int[] ids, int size, float[] scores, float constant) {
+            this.ids = ids;
+            this.size = size;
+            this.scores = scores;
+            this.constant = constant;
+        }
+
+        float score(int i) {
+            return scores == null ? constant : scores[i];
+        }
+
+        /** union; a leave found in several fields sums their scores */
+        Scored or(Scored o) {
+            if (size == 0) return o;
+            if (o.size == 0) return this;
+            int[] ids2 = new int[size + o.size];
+            float[] s2 = new float[size + o.size];
+            int i = 0, j = 0, k = 0;
+            while (i < size || j < o.size) {
+                if (j == o.size || (i < size && ids[i] < o.ids[j])) {
+                    ids2[k] = ids[i]; s2[k++] = score(i++);
+                } else if (i == size || o.ids[j] < ids[i]) {
+                    ids2[k] = o.ids[j]; s2[k++] = o.score(j++);
+                } else {
+                    ids2[k] = ids[i]; s2[k++] = score(i++) + o.score(j++);
+                }
+            }
+            return new Scored(ids2, k, s2, 0f);
+        }
+
+        /** intersection; 'this' is the smaller side, probed into o by binary search when o is much larger */
+        Scored and(Scored o) {
+            int[] ids2 = new int[size];
+            float[] s2 = new float[size];
+            int k = 0;
+            if (o.size > size * 8) {
+                int from = 0;
+                for (int i = 0; i < size && from < o.size; i++) {
+                    int pos = Arrays.binarySearch(o.ids, from, o.size, ids[i]);
+                    if (pos >= 0) {
+                        ids2[k] = ids[i]; s2[k++] = score(i) + o.score(pos);
+                        from = pos + 1;
+                    } else {
+                        from = -pos - 1;
+                    }
+                }
+            } else {
+                for (int i = 0, j = 0; i < size && j < o.size; ) {
+                    if (ids[i] < o.ids[j]) i++;
+                    else if (o.ids[j] < ids[i]) j++;
+                    else { ids2[k] = ids[i]; s2[k++] = score(i++) + o.score(j++); }
+                }
+            }
+            return new Scored(ids2, k, s2, 0f);
+        }
+
+        /**
+         * Hits [offset, offset + limit) by score, then newest id. A min-heap keeps the best
+         * offset + limit keys (score bits above the id, both non-negative); walking ids from
+         * the top means equal-score hits after the heap fills are rejected by one compare.
+         */
+        Hits top(int offset, int limit, BitSet dead) {
+            int k = offset + limit;
+            long[] heap = new long[Math.min(k, size)];
+            int h = 0;
+            long total = 0;
+            for (int i = size - 1; i >= 0; i--) {
+                int id = ids[i];
+                if (dead.get(id)) continue;
+                total++;
+                long key = ((long) Float.floatToIntBits(score(i)) << 32) | id;
+                if (h < heap.length) {
+                    heap[h] = key;
+                    siftUp(heap, h++);
+                } else if (heap.length > 0 && key > heap[0]) {
+                    heap[0] = key;
+                    siftDown(heap, h);
+                }
+            }
+            long[] best = Arrays.copyOf(heap, h);
+            Arrays.sort(best);
+            List<Long> out = new ArrayList<>(limit);
+            for (int i = h - 1 - offset; i >= 0 && out.size() < limit; i--) out.add(best[i] & 0xffffffffL);
+            return new Hits(total, out);
+        }
+
+        private static void siftUp(long[] heap, int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= heap[i]) return;
+                long t = heap[parent]; heap[parent] = heap[i]; heap[i] = t;
+                i = parent;
+            }
+        }
+
+        private static void siftDown(long[] heap, int n) {
+            int i = 0;
+            while (true) {
+                int l = 2 * i + 1, r = l + 1, m = i;
+                if (l < n && heap[l] < heap[m]) m = l;
+                if (r < n && heap[r] < heap[m]) m = r;
+                if (m == i) return;
+                long t = heap[m]; heap[m] = heap[i]; heap[i] = t;
+                i = m;
+            }
+        }
+    }
+}
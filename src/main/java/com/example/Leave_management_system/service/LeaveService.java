@@ -1,35 +1,54 @@
 // src/main/java/com/example/Leave_management_system/service/LeaveService.java
 package com.example.Leave_management_system.service;
 
+import com.example.Leave_management_system.Repository.ArchivedLeaveRepository;
 import com.example.Leave_management_system.Repository.LeaveRequestRepository;
 import com.example.Leave_management_system.dto.*;
 import com.example.Leave_management_system.exception.*;
 import com.example.Leave_management_system.model.*;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service @RequiredArgsConstructor
 public class LeaveService {
 
     private final EmployeeService employeeService;
     private final LeaveRequestRepository leaveRepo;
-
-    private static LocalDate startOfYear(LocalDate d){ return LocalDate.of(d.getYear(),1,1); }
-    private static LocalDate endOfYear(LocalDate d){ return LocalDate.of(d.getYear(),12,31); }
-
-    private static int inclusiveDays(LocalDate s, LocalDate e){
-        long diff = java.time.temporal.ChronoUnit.DAYS.between(s, e) + 1;
-        if (diff <= 0) throw new BadRequestException("endDate must be >= startDate");
-        return (int) diff;
-    }
-
-    // ---------- DTO mapper (centralized) ----------
-    private static LeaveDto toDto(LeaveRequest lr){
+    private final BalanceLedgerService ledger;
+    private final LeaveOverlapIndex overlapIndex;
+    private final ApplicationEventPublisher events;
+    private final MeterRegistry meters;
+    private final EmployeeLockStripes applyLocks;
+    private final TransactionTemplate tx;
+    private final IdempotencyStore idempotency;
+    private final BalanceChangeStamps balanceStamps;
+    private final WorkingDayCalendar workingDays;
+    private final AccrualService accruals;
+    private final ArchivedLeaveRepository archiveRepo;
+    private final LeaveArchiveService archive;
+    private final LeaveSearchIndex searchIndex;
+
+    private static final int MAX_CLAIM = 100;
+
+    @Value("${leave.queue.claim-ttl-minutes:15}")
+    private long claimTtlMinutes;
+
+    // ---------- DTO mapper (centralized; read paths project LeaveDto directly in the repository) ----------
+    static LeaveDto toDto(LeaveRequest lr){
         var emp = lr.getEmployee();
         var appr = lr.getApprover();
         return LeaveDto.builder()
@@ -51,53 +70,230 @@ public class LeaveService {
                 .build();
     }
 
-    // ---------- READ APIs (safe for serialization) ----------
+    // ---------- READ APIs (DTO projections: no managed entities on read paths) ----------
     @Transactional(readOnly = true)
+    @Timed(value = "leave.service", extraTags = {"op", "get"}, histogram = true)
     public LeaveDto getDtoById(Long id) {
-        var lr = leaveRepo.findById(id)
+        return getDtoById(id, false);
+    }
+
+    /** Hot table first; with includeArchived a miss falls through to leave_requests_archive. */
+    @Transactional(readOnly = true)
+    @Timed(value = "leave.service", extraTags = {"op", "get"}, histogram = true)
+    public LeaveDto getDtoById(Long id, boolean includeArchived) {
+        return leaveRepo.findDtoById(id)
+                .or(() -> includeArchived ? archiveRepo.findDtoById(id) : Optional.empty())
                 .orElseThrow(() -> new NotFoundException("leave not found: " + id));
-        return toDto(lr);
     }
 
+    /**
+     * Strong ETag of getDtoById, from LeaveRequest.version (bumped on every update).
+     * Callers read it before the DTO: a write in between yields an older tag on a newer
+     * body, which only costs the client one extra full response.
+     */
     @Transactional(readOnly = true)
+    public String leaveETag(Long id, boolean includeArchived) {
+        return leaveRepo.findVersionById(id)
+                .or(() -> includeArchived ? archiveRepo.findVersionById(id) : Optional.empty())
+                .map(v -> "\"leave-" + id + "-v" + v + "\"")
+                .orElseThrow(() -> new NotFoundException("leave not found: " + id));
+    }
+
+    @Transactional(readOnly = true)
+    @Timed(value = "leave.service", extraTags = {"op", "list"}, histogram = true)
     public PageResponse<LeaveDto> listLeaves(String statusStr, Long employeeId, int page, int size) {
+        return listLeaves(statusStr, employeeId, page, size, false);
+    }
+
+    /** archived=true pages through leave_requests_archive instead (same filters and order). */
+    @Transactional(readOnly = true)
+    @Timed(value = "leave.service", extraTags = {"op", "list"}, histogram = true)
+    public PageResponse<LeaveDto> listLeaves(String statusStr, Long employeeId, int page, int size, boolean archived) {
         if (page < 0) throw new BadRequestException("page must be >= 0");
         if (size <= 0 || size > 200) throw new BadRequestException("size must be in (1..200)");
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
+        Pageable pageable = PageRequest.of(page, size); // newest-first order is part of each query
 
-        LeaveStatus status = null;
-        if (statusStr != null && !statusStr.isBlank()) {
-            try {
-                status = LeaveStatus.valueOf(statusStr.toUpperCase());
-            } catch (IllegalArgumentException ex) {
-                throw new BadRequestException("invalid status: " + statusStr);
-            }
-        }
+        LeaveStatus status = parseStatus(statusStr);
 
-        Page<LeaveRequest> p;
-        if (employeeId != null && status != null) {
-            p = leaveRepo.findAllByEmployee_IdAndStatusOrderByCreatedAtDesc(employeeId, status, pageable);
+        Page<LeaveDto> p;
+        if (archived) {
+            p = employeeId != null && status != null ? archiveRepo.findDtoPageByEmployeeAndStatus(employeeId, status, pageable)
+                    : employeeId != null ? archiveRepo.findDtoPageByEmployee(employeeId, pageable)
+                    : status != null ? archiveRepo.findDtoPageByStatus(status, pageable)
+                    : archiveRepo.findDtoPage(pageable);
+        } else if (employeeId != null && status != null) {
+            p = leaveRepo.findDtoPageByEmployeeAndStatus(employeeId, status, pageable);
         } else if (employeeId != null) {
-            p = leaveRepo.findAllByEmployee_IdOrderByCreatedAtDesc(employeeId, pageable);
+            p = leaveRepo.findDtoPageByEmployee(employeeId, pageable);
         } else if (status != null) {
-            p = leaveRepo.findAllByStatusOrderByCreatedAtDesc(status, pageable);
+            p = leaveRepo.findDtoPageByStatus(status, pageable);
         } else {
-            p = leaveRepo.findAll(pageable);
+            p = leaveRepo.findDtoPage(pageable);
         }
 
-        List<LeaveDto> items = p.getContent().stream().map(LeaveService::toDto).toList();
         return PageResponse.<LeaveDto>builder()
-                .items(items)
+                .items(p.getContent())
                 .page(p.getNumber())
                 .size(p.getSize())
                 .total(p.getTotalElements())
                 .build();
     }
 
-    // ---------- Existing apply/approve/reject/balance logic (unchanged) ----------
-    @Transactional
+    /** Keyset mode of listLeaves: (createdAt, id) cursor, Slice semantics (no COUNT, no OFFSET). */
+    @Transactional(readOnly = true)
+    @Timed(value = "leave.service", extraTags = {"op", "list_cursor"}, histogram = true)
+    public CursorPageResponse<LeaveDto> listLeavesByCursor(String statusStr, Long employeeId, String cursor, int size) {
+        if (size <= 0 || size > 200) throw new BadRequestException("size must be in (1..200)");
+
+        LeaveStatus status = parseStatus(statusStr);
+        var after = LeaveCursor.decode(cursor);
+        Pageable limit = PageRequest.of(0, size);
+
+        Slice<LeaveDto> s;
+        if (employeeId != null && status != null) {
+            s = leaveRepo.findDtoSliceByEmployeeAndStatusAfter(employeeId, status, after.createdAt(), after.id(), limit);
+        } else if (employeeId != null) {
+            s = leaveRepo.findDtoSliceByEmployeeAfter(employeeId, after.createdAt(), after.id(), limit);
+        } else if (status != null) {
+            s = leaveRepo.findDtoSliceByStatusAfter(status, after.createdAt(), after.id(), limit);
+        } else {
+            s = leaveRepo.findDtoSliceAfter(after.createdAt(), after.id(), limit);
+        }
+
+        var content = s.getContent();
+        String next = null;
+        if (s.hasNext() && !content.isEmpty()) {
+            var last = content.get(content.size() - 1);
+            next = new LeaveCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return CursorPageResponse.<LeaveDto>builder()
+                .items(content)
+                .size(size)
+                .hasNext(s.hasNext())
+                .nextCursor(next)
+                .build();
+    }
+
+    /** Validated export filters; built before the response starts so bad input is still a 400. */
+    public record ExportQuery(LeaveStatus status, Long employeeId, LocalDate from, LocalDate to) {}
+
+    public static ExportQuery exportQuery(String statusStr, Long employeeId, LocalDate from, LocalDate to) {
+        if (from != null && to != null && to.isBefore(from)) throw new BadRequestException("to before from");
+        return new ExportQuery(parseStatus(statusStr), employeeId, from, to);
+    }
+
+    /**
+     * Streams every matching leave to the sink in id order. Rows come from a forward-only
+     * cursor as DTO projections (nothing accumulates in the persistence context), so memory
+     * stays flat whatever the row count. Must be called from the thread that writes the response.
+     */
+    @Transactional(readOnly = true)
+    @Timed(value = "leave.service", extraTags = {"op", "export"}, histogram = true)
+    public long exportLeaves(ExportQuery q, Consumer<LeaveDto> sink) {
+        long n = 0;
+        try (var rows = leaveRepo.streamDtosForExport(q.status(), q.employeeId(), q.from(), q.to())) {
+            for (var it = rows.iterator(); it.hasNext(); n++) sink.accept(it.next());
+        }
+        return n;
+    }
+
+    /** LIKE pattern matching q as a literal substring; the query declares escape '\'. */
+    private static String containsPattern(String q) {
+        var literal = q.strip().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + literal + "%";
+    }
+
+    private static LeaveStatus parseStatus(String statusStr){
+        if (statusStr == null || statusStr.isBlank()) return null;
+        try {
+            return LeaveStatus.valueOf(statusStr.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("invalid status: " + statusStr);
+        }
+    }
+
+    /**
+     * Ranked full-text search over reason, decision note and employee name (hot leaves only).
+     * The index yields one page of ids; their DTOs come from one IN-query, put back in rank order.
+     */
+    @Transactional(readOnly = true)
+    @Timed(value = "leave.service", extraTags = {"op", "search"}, histogram = true)
+    public PageResponse<LeaveDto> searchLeaves(String q, int page, int size) {
+        if (q == null || q.isBlank()) throw new BadRequestException("q required");
+        if (page < 0) throw new BadRequestException("page must be >= 0");
+        if (size <= 0 || size > 200) throw new BadRequestException("size must be in (1..200)");
+        if ((long) (page + 1) * size > LeaveSearchIndex.MAX_HITS)
+            throw new BadRequestException("only the first " + LeaveSearchIndex.MAX_HITS + " hits can be paged; refine q");
+
+        if (!searchIndex.enabled()) {
+            var p = leaveRepo.findDtoPageMatching(containsPattern(q), PageRequest.of(page, size));
+            return PageResponse.<LeaveDto>builder()
+                    .items(p.getContent()).page(page).size(size).total(p.getTotalElements())
+                    .build();
+        }
+
+        var hits = searchIndex.search(q, page * size, size);
+        Map<Long, LeaveDto> byId = new HashMap<>();
+        if (!hits.ids().isEmpty())
+            for (var d : leaveRepo.findDtosByIds(hits.ids())) byId.put(d.getId(), d);
+        var items = hits.ids().stream().map(byId::get).filter(Objects::nonNull).toList(); // archived meanwhile
+        return PageResponse.<LeaveDto>builder()
+                .items(items).page(page).size(size).total(hits.total())
+                .build();
+    }
+
+    // ---------- apply / approve / reject ----------
+    /**
+     * Applications of one employee run one at a time, so two concurrent submissions cannot
+     * both pass the overlap and balance checks. The striped lock covers this node and is
+     * released only after commit, by which point the overlap index has seen the new leave.
+     * The employee row lock (FOR UPDATE) serializes nodes too, but the overlap index only
+     * sees this node's leaves: on more than one node set leave.overlap-index.enabled=false,
+     * so the overlap check under the row lock is the DB query. Other employees are unaffected.
+     */
+    @Timed(value = "leave.service", extraTags = {"op", "apply"}, histogram = true)
     public Long apply(ApplyLeaveRequest req){
+        return apply(req, null).leaveId();
+    }
+
+    /**
+     * apply() with an optional Idempotency-Key. A key seen before (same employee, same body)
+     * returns the original leaveId straight from IdempotencyStore, before any lock or
+     * overlap/balance query. Under the employee lock the key is checked again, so two
+     * concurrent retries still create a single leave. That lock is per node: a retry racing
+     * on another node loses on the idempotency_keys primary key and is answered from the
+     * winner's row.
+     */
+    @Timed(value = "leave.service", extraTags = {"op", "apply"}, histogram = true)
+    public ApplyResult apply(ApplyLeaveRequest req, String idempotencyKey){
+        if (req.getEmployeeId() == null) throw new BadRequestException("employeeId required");
+        if (idempotencyKey == null)
+            return new ApplyResult(applyLocks.withLock(req.getEmployeeId(), () -> tx.execute(status -> applyLocked(req))), false);
+
+        IdempotencyStore.validate(idempotencyKey);
+        var hash = IdempotencyStore.hash(req);
+        var replay = idempotency.find(req.getEmployeeId(), idempotencyKey, hash);
+        if (replay.isPresent()) return new ApplyResult(replay.get(), true);
+
+        try {
+            return applyLocks.withLock(req.getEmployeeId(), () -> tx.execute(status -> {
+                var raced = idempotency.find(req.getEmployeeId(), idempotencyKey, hash);
+                if (raced.isPresent()) return new ApplyResult(raced.get(), true);
+                Long id = applyLocked(req);
+                idempotency.record(req.getEmployeeId(), idempotencyKey, hash, id);
+                return new ApplyResult(id, false);
+            }));
+        } catch (DataIntegrityViolationException ex) {
+            // our leave rolled back; the key's row is the other node's committed result
+            return idempotency.find(req.getEmployeeId(), idempotencyKey, hash)
+                    .map(id -> new ApplyResult(id, true))
+                    .orElseThrow(() -> ex);
+        }
+    }
+
+    private Long applyLocked(ApplyLeaveRequest req){
         var emp = employeeService.getOrThrow(req.getEmployeeId());
 
         var start = req.getStartDate();
@@ -108,23 +304,26 @@ public class LeaveService {
 
         if (start.isBefore(emp.getJoiningDate()))
             throw new BadRequestException("cannot apply before joining date");
+        if (start.isBefore(archive.cutoff()))
+            throw new BadRequestException("leaves before " + archive.cutoff() + " are archived and closed");
+
+        employeeService.lockRow(emp.getId()); // before reading ranges / balance
 
-        var overlaps = leaveRepo.existsByEmployee_IdAndStatusInAndEndDateGreaterThanEqualAndStartDateLessThanEqual(
-                emp.getId(), java.util.List.of(LeaveStatus.PENDING, LeaveStatus.APPROVED), start, end);
-        if (overlaps) throw new ConflictException("overlapping leave exists");
+        // DB query when the index is disabled (multi-node); the index only knows this node's leaves
+        if (overlapIndex.overlaps(emp.getId(), start, end)) throw new ConflictException("overlapping leave exists");
 
-        int reqDays = inclusiveDays(start, end);
+        // working days only: weekends and the department's (or default) holidays are not deducted
+        int reqDays = workingDays.workingDays(emp.getDepartment(), start, end);
+        if (reqDays == 0) throw new BadRequestException("leave covers no working days");
 
-        var yStart = startOfYear(start);
-        var yEnd   = endOfYear(start);
-        int approved = leaveRepo.sumApprovedDaysBetween(emp.getId(), yStart, yEnd);
-        int remaining = emp.getAnnualAllocationDays() - approved;
+        var type = req.getType() != null ? req.getType() : LeaveType.ANNUAL;
+        int remaining = remaining(emp, start.getYear(), type, ledger.yearLedger(emp.getId(), start.getYear()));
         if (reqDays > remaining)
             throw new BadRequestException("insufficient balance: remaining=" + remaining + ", requested=" + reqDays);
 
         var lr = LeaveRequest.builder()
-                .employee(emp)
-                .type(req.getType() != null ? req.getType() : LeaveType.ANNUAL)
+                .employee(employeeService.getReference(emp.getId()))
+                .type(type)
                 .status(LeaveStatus.PENDING)
                 .startDate(start)
                 .endDate(end)
@@ -132,16 +331,20 @@ public class LeaveService {
                 .reason(req.getReason())
                 .build();
 
-        return leaveRepo.save(lr).getId();
+        var saved = leaveRepo.save(lr);
+        publish(saved, null);
+        return saved.getId();
     }
 
     @Transactional
+    @Timed(value = "leave.service", extraTags = {"op", "approve"}, histogram = true)
     public void approve(Long leaveId, DecisionRequest req){
         try {
             var lr = leaveRepo.findById(leaveId)
                     .orElseThrow(() -> new NotFoundException("leave not found: " + leaveId));
             if (lr.getStatus() != LeaveStatus.PENDING)
                 throw new ConflictException("only PENDING can be approved");
+            checkClaim(lr, req.getApproverId(), "approve");
 
             var approver = employeeService.getOrThrow(req.getApproverId());
             if (!approver.isHr())
@@ -149,53 +352,264 @@ public class LeaveService {
             if (approver.getId().equals(lr.getEmployee().getId()))
                 throw new ForbiddenException("self-approval not allowed");
 
-            // balance check
-            var yStart = startOfYear(lr.getStartDate());
-            var yEnd   = endOfYear(lr.getStartDate());
-            int approved = leaveRepo.sumApprovedDaysBetween(lr.getEmployee().getId(), yStart, yEnd);
-            int remaining = lr.getEmployee().getAnnualAllocationDays() - approved;
+            // balance check: the allocation is shared across types, so every ledger row of the
+            // employee's year is locked, not just this type's. The employee row lock first keeps
+            // two approvals that both create a row from deadlocking on each other's insert.
+            int year = lr.getStartDate().getYear();
+            var emp = employeeService.getOrThrow(lr.getEmployee().getId());
+            employeeService.lockRow(emp.getId());
+            var key = new LeaveBalanceId(emp.getId(), year, lr.getType());
+            var rows = ledger.lockForYear(year, List.of(emp.getId()), List.of(key));
+            var row = rows.get(key);
+            if (row == null) // created by a concurrent batch that has not committed yet
+                throw new ConflictException("balance changed concurrently. Please retry.");
+            int remaining = remaining(emp, year, lr.getType(), YearLedger.of(rows.values()));
             if (lr.getDays() > remaining)
                 throw new ConflictException("insufficient balance at approval time");
+            row.setApprovedDays(row.getApprovedDays() + lr.getDays());
+            ledger.saveAll(List.of(row));
 
             lr.setStatus(LeaveStatus.APPROVED);
-            lr.setApprover(approver);
+            lr.setApprover(employeeService.getReference(approver.getId()));
             lr.setDecisionNote(req.getNote());
+            releaseClaim(lr);
 
-            leaveRepo.save(lr); // version checked here automatically
-        } catch (org.springframework.dao.OptimisticLockingFailureException ex) {
+            leaveRepo.saveAndFlush(lr); // version checked now, not at commit, so a conflict lands in the catch
+            publish(lr, LeaveStatus.PENDING);
+        } catch (org.springframework.dao.ConcurrencyFailureException ex) { // stale version, or deadlock with a batch
+            meters.counter("leave.optimistic_lock.conflicts", "op", "approve").increment();
             throw new ConflictException("leave was modified by another HR. Please refresh and try again.");
         }
     }
 
     @Transactional
+    @Timed(value = "leave.service", extraTags = {"op", "reject"}, histogram = true)
     public void reject(Long leaveId, DecisionRequest req){
         try {
             var lr = leaveRepo.findById(leaveId)
                     .orElseThrow(() -> new NotFoundException("leave not found: " + leaveId));
             if (lr.getStatus() != LeaveStatus.PENDING)
                 throw new ConflictException("only PENDING can be rejected");
+            checkClaim(lr, req.getApproverId(), "reject");
 
             var approver = employeeService.getOrThrow(req.getApproverId());
             if (!approver.isHr())
                 throw new ForbiddenException("approver must be HR");
 
             lr.setStatus(LeaveStatus.REJECTED);
-            lr.setApprover(approver);
+            lr.setApprover(employeeService.getReference(approver.getId()));
             lr.setDecisionNote(req.getNote());
+            releaseClaim(lr);
 
-            leaveRepo.save(lr); // optimistic locking version checked here
+            leaveRepo.saveAndFlush(lr); // version checked now, not at commit, so a conflict lands in the catch
+            publish(lr, LeaveStatus.PENDING);
         } catch (org.springframework.dao.OptimisticLockingFailureException ex) {
+            meters.counter("leave.optimistic_lock.conflicts", "op", "reject").increment();
             throw new ConflictException("leave was modified by another HR. Please refresh and try again.");
         }
     }
 
+    /**
+     * Approve/reject many leaves in one transaction. Leaves and ledger rows are locked
+     * up front with IN-queries, so every per-item failure (missing, stale version,
+     * not PENDING, balance) is decided here and reported instead of failing the batch;
+     * the resulting updates are flushed as JDBC batches at commit.
+     */
+    @Transactional
+    @Timed(value = "leave.service", extraTags = {"op", "decide_batch"}, histogram = true)
+    public BatchDecisionResponse decideBatch(BatchDecisionRequest req){
+        var approver = employeeService.getOrThrow(req.getApproverId());
+        if (!approver.isHr())
+            throw new ForbiddenException("approver must be HR");
+
+        var ids = req.getItems().stream().map(BatchDecisionRequest.Item::getLeaveId).distinct().toList();
+        Map<Long, LeaveRequest> leaves = new HashMap<>();
+        for (var lr : leaveRepo.findAllForUpdate(ids)) leaves.put(lr.getId(), lr);
+        // employee snapshots from the cache; misses loaded with one IN-query
+        var employees = employeeService.getAllById(
+                leaves.values().stream().map(lr -> lr.getEmployee().getId()).collect(Collectors.toSet()));
+
+        // ledger rows an approval may write are created first if missing, so they are locked too
+        Set<LeaveBalanceId> approvalRows = req.getItems().stream()
+                .filter(item -> item.getDecision() == BatchDecisionRequest.Decision.APPROVE)
+                .map(item -> leaves.get(item.getLeaveId()))
+                .filter(lr -> lr != null && lr.getStatus() == LeaveStatus.PENDING)
+                .map(lr -> new LeaveBalanceId(lr.getEmployee().getId(), lr.getStartDate().getYear(), lr.getType()))
+                .collect(Collectors.toSet());
+        Map<LeaveBalanceId, LeaveBalance> ledgerRows = new HashMap<>();
+        leaves.values().stream()
+                .filter(lr -> lr.getStatus() == LeaveStatus.PENDING)
+                .collect(Collectors.groupingBy(lr -> lr.getStartDate().getYear(),
+                        Collectors.mapping(lr -> lr.getEmployee().getId(), Collectors.toSet())))
+                .forEach((year, empIds) -> ledgerRows.putAll(ledger.lockForYear(year, empIds,
+                        approvalRows.stream().filter(k -> k.getYear() == year).toList())));
+
+        List<BatchDecisionResponse.ItemResult> results = new ArrayList<>();
+        List<LeaveRequest> decided = new ArrayList<>();
+        int approvedCount = 0, rejectedCount = 0;
+        for (var item : req.getItems()) {
+            var lr = leaves.get(item.getLeaveId());
+            var outcome = decideOne(lr, item, approver, employees, ledgerRows);
+            results.add(outcome);
+            if (outcome.getOutcome() == BatchDecisionResponse.Outcome.APPROVED) approvedCount++;
+            if (outcome.getOutcome() == BatchDecisionResponse.Outcome.REJECTED) rejectedCount++;
+            if (outcome.getOutcome() == BatchDecisionResponse.Outcome.APPROVED
+                    || outcome.getOutcome() == BatchDecisionResponse.Outcome.REJECTED) decided.add(lr);
+        }
+        ledger.saveAll(ledgerRows.values());
+        // ledger before events, as in approve(): listeners take the department rollup lock
+        for (var lr : decided) publish(lr, LeaveStatus.PENDING);
+
+        return BatchDecisionResponse.builder()
+                .approved(approvedCount)
+                .rejected(rejectedCount)
+                .failed(results.size() - approvedCount - rejectedCount)
+                .results(results)
+                .build();
+    }
+
+    private BatchDecisionResponse.ItemResult decideOne(LeaveRequest lr, BatchDecisionRequest.Item item, EmployeeSnapshot approver,
+                                                       Map<Long, EmployeeSnapshot> employees,
+                                                       Map<LeaveBalanceId, LeaveBalance> ledgerRows){
+        Long id = item.getLeaveId();
+        if (lr == null)
+            return fail(id, BatchDecisionResponse.Outcome.NOT_FOUND, "leave not found: " + id);
+        if (item.getVersion() != null && !item.getVersion().equals(lr.getVersion())) {
+            meters.counter("leave.optimistic_lock.conflicts", "op", "decide_batch").increment();
+            return fail(id, BatchDecisionResponse.Outcome.CONFLICT, "leave was modified by another HR. Please refresh and try again.");
+        }
+        if (lr.getStatus() != LeaveStatus.PENDING)
+            return fail(id, BatchDecisionResponse.Outcome.CONFLICT, "only PENDING can be decided");
+        if (claimedByOther(lr, approver.getId())) {
+            meters.counter("leave.queue.claim_conflicts", "op", "decide_batch").increment();
+            return fail(id, BatchDecisionResponse.Outcome.CONFLICT, "leave is claimed by another reviewer");
+        }
+
+        if (item.getDecision() == BatchDecisionRequest.Decision.APPROVE) {
+            var emp = employees.get(lr.getEmployee().getId());
+            if (approver.getId().equals(emp.getId()))
+                return fail(id, BatchDecisionResponse.Outcome.FORBIDDEN, "self-approval not allowed");
+
+            int year = lr.getStartDate().getYear();
+            var key = new LeaveBalanceId(emp.getId(), year, lr.getType());
+            var row = ledgerRows.get(key);
+            if (row == null) // created by a concurrent approval that has not committed yet
+                return fail(id, BatchDecisionResponse.Outcome.CONFLICT, "balance changed concurrently. Please retry.");
+            var yearLedger = YearLedger.of(ledgerRows.values().stream()
+                    .filter(b -> b.getId().getEmployeeId().equals(emp.getId()) && b.getId().getYear() == year)
+                    .toList());
+            if (lr.getDays() > remaining(emp, year, lr.getType(), yearLedger))
+                return fail(id, BatchDecisionResponse.Outcome.CONFLICT, "insufficient balance at approval time");
+
+            row.setApprovedDays(row.getApprovedDays() + lr.getDays());
+            lr.setStatus(LeaveStatus.APPROVED);
+        } else {
+            lr.setStatus(LeaveStatus.REJECTED);
+        }
+        lr.setApprover(employeeService.getReference(approver.getId()));
+        lr.setDecisionNote(item.getNote());
+        releaseClaim(lr);
+        return new BatchDecisionResponse.ItemResult(id,
+                lr.getStatus() == LeaveStatus.APPROVED ? BatchDecisionResponse.Outcome.APPROVED : BatchDecisionResponse.Outcome.REJECTED,
+                null);
+    }
+
+    private static BatchDecisionResponse.ItemResult fail(Long leaveId, BatchDecisionResponse.Outcome outcome, String message){
+        return new BatchDecisionResponse.ItemResult(leaveId, outcome, message);
+    }
+
+    // ---------- HR work queue: disjoint leased batches of PENDING leaves ----------
+    /**
+     * Hands the reviewer up to n PENDING leaves nobody else holds, oldest first, leased for
+     * claimTtlMinutes. Candidate rows are locked with SKIP LOCKED, so concurrent claims
+     * pass over each other's rows instead of waiting or double-assigning. The reviewer's own
+     * unexpired claims are returned again (and extended), so a retried call is harmless.
+     */
+    @Transactional
+    @Timed(value = "leave.service", extraTags = {"op", "claim"}, histogram = true)
+    public LeaveClaimResponse claim(Long reviewerId, int n){
+        if (n <= 0 || n > MAX_CLAIM) throw new BadRequestException("n must be in (1.." + MAX_CLAIM + ")");
+        var reviewer = employeeService.getOrThrow(reviewerId);
+        if (!reviewer.isHr())
+            throw new ForbiddenException("reviewer must be HR");
+
+        var now = LocalDateTime.now();
+        var until = now.plusMinutes(claimTtlMinutes);
+        var ids = leaveRepo.lockClaimable(reviewerId, now, PageRequest.of(0, n)).stream()
+                .map(LeaveRequest::getId).toList();
+        meters.counter("leave.queue.claims").increment();
+
+        List<LeaveDto> items = List.of();
+        if (!ids.isEmpty()) {
+            leaveRepo.claim(ids, reviewerId, until);
+            meters.counter("leave.queue.claimed").increment(ids.size());
+            items = leaveRepo.findDtosByIds(ids);
+        }
+        return LeaveClaimResponse.builder()
+                .reviewerId(reviewerId)
+                .claimedUntil(until)
+                .items(items)
+                .build();
+    }
+
+    private void checkClaim(LeaveRequest lr, Long approverId, String op){
+        if (claimedByOther(lr, approverId)) {
+            meters.counter("leave.queue.claim_conflicts", "op", op).increment();
+            throw new ConflictException("leave is claimed by another reviewer until " + lr.getClaimExpiresAt());
+        }
+    }
+
+    /** An unexpired claim held by someone else blocks the decision; an expired one is ignored. */
+    private static boolean claimedByOther(LeaveRequest lr, Long approverId){
+        return lr.getClaimedBy() != null && !lr.getClaimedBy().equals(approverId)
+                && lr.getClaimExpiresAt() != null && lr.getClaimExpiresAt().isAfter(LocalDateTime.now());
+    }
+
+    private static void releaseClaim(LeaveRequest lr){
+        lr.setClaimedBy(null);
+        lr.setClaimExpiresAt(null);
+    }
+
+    /** Strong ETag of balance(employeeId), or null when disabled; see BalanceChangeStamps. */
+    public String balanceETag(Long employeeId){
+        return balanceStamps.etag(employeeId, LocalDate.now().getYear());
+    }
+
     @Transactional(readOnly = true)
+    @Timed(value = "leave.service", extraTags = {"op", "balance"}, histogram = true)
     public BalanceResponse balance(Long employeeId){
         var emp = employeeService.getOrThrow(employeeId);
-        var now = LocalDate.now();
-        int approved = leaveRepo.sumApprovedDaysBetween(emp.getId(), startOfYear(now), endOfYear(now));
-        int allocation = emp.getAnnualAllocationDays();
+        int year = LocalDate.now().getYear();
+        var yearLedger = ledger.yearLedger(emp.getId(), year);
+        int approved = yearLedger.approvedTotal();
+        int earned = accruals.enabled() ? sum(accruals.accruedDays(emp.getId(), year)) : emp.getAnnualAllocationDays();
+        int allocation = earned + yearLedger.carriedIn();
         int remaining = allocation - approved;
-        return new BalanceResponse(emp.getId(), allocation, approved, remaining);
+        return new BalanceResponse(emp.getId(), allocation, yearLedger.carriedIn(), approved, remaining);
+    }
+
+    /**
+     * Days still available for a leave of this type. Upfront policy (default): one
+     * annualAllocationDays shared by all types. With leave.accrual.enabled: whole days
+     * accrued so far this year for the type, less what is approved for it. Days carried
+     * forward from last year count towards ANNUAL (or the shared allocation).
+     */
+    private int remaining(EmployeeSnapshot emp, int year, LeaveType type, YearLedger yearLedger){
+        if (!accruals.enabled())
+            return emp.getAnnualAllocationDays() + yearLedger.carriedIn() - yearLedger.approvedTotal();
+        int carried = type == LeaveType.ANNUAL ? yearLedger.carriedIn() : 0;
+        return accruals.accruedDays(emp.getId(), year).getOrDefault(type, 0) + carried - yearLedger.approved(type);
+    }
+
+    private static int sum(Map<LeaveType, Integer> days){
+        int total = 0;
+        for (int d : days.values()) total += d;
+        return total;
+    }
+
+    private void publish(LeaveRequest lr, LeaveStatus previous){
+        events.publishEvent(new LeaveChangedEvent(lr.getId(), lr.getEmployee().getId(), lr.getType(),
+                previous, lr.getStatus(), lr.getStartDate(), lr.getEndDate(), lr.getDays(),
+                lr.getReason(), lr.getDecisionNote()));
     }
 }
@@ -0,0 +1,150 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.Repository.HolidayRepository;
+import com.example.Leave_management_system.dto.HolidayRequest;
+import com.example.Leave_management_system.exception.BadRequestException;
+import com.example.Leave_management_system.exception.ConflictException;
+import com.example.Leave_management_system.exception.NotFoundException;
+import com.example.Leave_management_system.model.Holiday;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Working days (not weekend, not a holiday of the employee's calendar) between two dates.
+ * Each (calendar, year) is turned into a YearMask on first use and kept until a holiday of
+ * that calendar changes on this node, or cacheTtl after it was loaded, so a count is a
+ * couple of popcounts per year spanned.
+ *
+ * A department uses the calendar named after it when one exists, otherwise "default".
+ * Holiday changes made on another node are seen here only once the cached masks and
+ * calendar names expire: until then the nodes may store different day counts for the same
+ * leave. Multi-node deployments should keep leave.working-days.cache-ttl-seconds short;
+ * 0 disables caching.
+ */
+@Service
+public class WorkingDayCalendar implements SmartInitializingSingleton {
+
+    public static final String DEFAULT = "default";
+
+    private record Key(String calendar, int year) {}
+
+    private final HolidayRepository holidayRepo;
+    private final Set<DayOfWeek> weekend;
+    private final Cache<String, Boolean> calendars; // department -> has a calendar of its own
+    private final Cache<Key, YearMask> masks;
+    private final AtomicLong changes = new AtomicLong();
+
+    public WorkingDayCalendar(HolidayRepository holidayRepo,
+                              @Value("${leave.working-days.weekend:SATURDAY,SUNDAY}") String[] weekend,
+                              @Value("${leave.working-days.cache-ttl-seconds:60}") long cacheTtlSeconds) {
+        this.holidayRepo = holidayRepo;
+        var ttl = Duration.ofSeconds(cacheTtlSeconds);
+        this.calendars = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(10_000).build();
+        this.masks = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(10_000).build();
+        var days = EnumSet.noneOf(DayOfWeek.class);
+        for (var d : weekend) if (!d.isBlank()) days.add(DayOfWeek.valueOf(d.trim().toUpperCase()));
+        this.weekend = Collections.unmodifiableSet(days);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (var c : holidayRepo.findDistinctCalendars()) calendars.put(c, true);
+    }
+
+    public String calendarOf(String department) {
+        if (department == null) return DEFAULT;
+        return calendars.get(department, holidayRepo::existsByCalendar) ? department : DEFAULT;
+    }
+
+    /** Working days in [start, end] for an employee of the department. */
+    public int workingDays(String department, LocalDate start, LocalDate end) {
+        var calendar = calendarOf(department);
+        return count(year -> mask(calendar, year), start, end);
+    }
+
+    /** Range count over per-year masks; shared with the JMH benchmark. */
+    static int count(IntFunction<YearMask> masks, LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) return 0;
+        int total = 0;
+        for (int y = start.getYear(); y <= end.getYear(); y++) {
+            var m = masks.apply(y);
+            int from = y == start.getYear() ? start.getDayOfYear() : 1;
+            int to = y == end.getYear() ? end.getDayOfYear() : m.lengthOfYear();
+            total += m.count(from, to);
+        }
+        return total;
+    }
+
+    private YearMask mask(String calendar, int year) {
+        var key = new Key(calendar, year);
+        var m = masks.getIfPresent(key);
+        if (m != null) return m;
+        long stamp = changes.get();
+        m = YearMask.of(year, weekend,
+                holidayRepo.findDates(calendar, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31)));
+        if (changes.get() == stamp) masks.asMap().putIfAbsent(key, m); // a load that raced a holiday change is not cached
+        return m;
+    }
+
+    // ---------- holiday maintenance ----------
+    @Transactional(readOnly = true)
+    public List<Holiday> list(String calendar, int year) {
+        return holidayRepo.findByCalendarAndDateBetweenOrderByDate(normalize(calendar),
+                LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+    }
+
+    /** Only affects leaves applied afterwards; existing leaves keep the days stored at apply time. */
+    @Transactional
+    public Holiday add(HolidayRequest req) {
+        var calendar = normalize(req.getCalendar());
+        if (holidayRepo.existsByCalendarAndDate(calendar, req.getDate()))
+            throw new ConflictException("holiday already defined for " + calendar + " on " + req.getDate());
+        var saved = holidayRepo.save(Holiday.builder()
+                .calendar(calendar)
+                .date(req.getDate())
+                .name(req.getName())
+                .build());
+        afterCommit(() -> {
+            changes.incrementAndGet();
+            calendars.put(calendar, true);
+            masks.invalidate(new Key(calendar, req.getDate().getYear()));
+        });
+        return saved;
+    }
+
+    @Transactional
+    public void remove(Long id) {
+        var h = holidayRepo.findById(id).orElseThrow(() -> new NotFoundException("holiday not found: " + id));
+        holidayRepo.delete(h);
+        afterCommit(() -> {
+            changes.incrementAndGet();
+            masks.invalidate(new Key(h.getCalendar(), h.getDate().getYear()));
+        });
+    }
+
+    private static String normalize(String calendar) {
+        if (calendar == null || calendar.isBlank()) return DEFAULT;
+        if (calendar.length() > 100) throw new BadRequestException("calendar name too long");
+        return calendar.trim();
+    }
+
+    private static void afterCommit(Runnable r) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() { r.run(); }
+        });
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.model.LeaveBalance;
+import com.example.Leave_management_system.model.LeaveType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/** One employee's ledger rows for a year: approved days per type, and days carried in from the year before. */
+public record YearLedger(Map<LeaveType, Integer> approved, int carriedIn) {
+
+    static YearLedger of(Iterable<LeaveBalance> rows) {
+        Map<LeaveType, Integer> approved = new EnumMap<>(LeaveType.class);
+        int carriedIn = 0;
+        for (var row : rows) {
+            approved.merge(row.getId().getType(), row.getApprovedDays(), Integer::sum);
+            carriedIn += row.getCarriedInDays();
+        }
+        return new YearLedger(approved, carriedIn);
+    }
+
+    public int approved(LeaveType type) {
+        return approved.getOrDefault(type, 0);
+    }
+
+    public int approvedTotal() {
+        int total = 0;
+        for (int d : approved.values()) total += d;
+        return total;
+    }
+}
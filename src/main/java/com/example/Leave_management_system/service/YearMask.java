@@ -0,0 +1,55 @@
+package com.example.Leave_management_system.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Working days of one year as a 366-bit mask (bit i = day-of-year i+1), plus the number of
+ * working days before each 64-bit word. Counting a range is two rank lookups: one array
+ * read and one popcount each, whatever the range length.
+ */
+final class YearMask {
+
+    private final long[] words = new long[6];
+    private final int[] before = new int[6]; // working days in words[0..w-1]
+    private final int length;
+
+    private YearMask(int length) {
+        this.length = length;
+    }
+
+    static YearMask of(int year, Set<DayOfWeek> weekend, Collection<LocalDate> holidays) {
+        var first = LocalDate.ofYearDay(year, 1);
+        var m = new YearMask(first.lengthOfYear());
+        int dow = first.getDayOfWeek().ordinal();
+        for (int i = 0; i < m.length; i++, dow = (dow + 1) % 7) {
+            if (!weekend.contains(DayOfWeek.values()[dow])) m.words[i >>> 6] |= 1L << i;
+        }
+        for (var h : holidays) {
+            if (h.getYear() == year) {
+                int i = h.getDayOfYear() - 1;
+                m.words[i >>> 6] &= ~(1L << i);
+            }
+        }
+        for (int w = 1; w < m.words.length; w++) m.before[w] = m.before[w - 1] + Long.bitCount(m.words[w - 1]);
+        return m;
+    }
+
+    /** working days with day-of-year in [fromDay, toDay], both 1-based and inclusive */
+    int count(int fromDay, int toDay) {
+        return rank(toDay) - rank(fromDay - 1);
+    }
+
+    /** working days among the first n days of the year */
+    private int rank(int n) {
+        int w = n >>> 6;
+        if (w >= words.length) return before[words.length - 1] + Long.bitCount(words[words.length - 1]);
+        return before[w] + Long.bitCount(words[w] & ((1L << n) - 1)); // shift is mod 64
+    }
+
+    int lengthOfYear() {
+        return length;
+    }
+}
@@ -0,0 +1,41 @@
+-- The original schema, as ddl-auto=update created it before migrations were introduced:
+-- employees and leave_requests only. Existing databases are baselined at this version
+-- (spring.flyway.baseline-on-migrate) and skip it, so every later change goes in V2 onward.
+
+create table employees (
+    id bigint not null auto_increment,
+    name varchar(255) not null,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    department varchar(255) not null,
+    joining_date date not null,
+    hr bit not null,
+    role enum ('EMPLOYEE','HR'),
+    annual_allocation_days integer,
+    primary key (id),
+    constraint uq_employee_email unique (email)
+) engine=InnoDB;
+
+create table leave_requests (
+    id bigint not null auto_increment,
+    employee_id bigint not null,
+    type enum ('ANNUAL','CASUAL','SICK'),
+    status enum ('APPROVED','PENDING','REJECTED'),
+    start_date date not null,
+    end_date date not null,
+    days integer,
+    reason varchar(255),
+    approver_id bigint,
+    decision_note varchar(255),
+    created_at datetime(6),
+    updated_at datetime(6),
+    version integer,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_lr_emp on leave_requests (employee_id);
+create index idx_lr_status on leave_requests (status);
+create index idx_lr_dates on leave_requests (start_date, end_date);
+
+alter table leave_requests add constraint fk_lr_employee foreign key (employee_id) references employees (id);
+alter table leave_requests add constraint fk_lr_approver foreign key (approver_id) references employees (id);
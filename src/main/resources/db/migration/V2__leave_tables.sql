@@ -0,0 +1,115 @@
+-- Columns, indexes and tables added after the baseline: HR queue claims, archive, balance
+-- ledger, accruals, usage rollups, holiday calendars, idempotency keys and the outbox.
+
+alter table leave_requests add column claimed_by bigint;
+alter table leave_requests add column claim_expires_at datetime(6);
+
+create index idx_lr_queue on leave_requests (status, created_at);
+create index idx_lr_archive on leave_requests (status, end_date);
+
+create table leave_requests_archive (
+    id bigint not null,
+    employee_id bigint not null,
+    type enum ('ANNUAL','CASUAL','SICK'),
+    status enum ('APPROVED','PENDING','REJECTED'),
+    start_date date,
+    end_date date,
+    days integer,
+    reason varchar(255),
+    approver_id bigint,
+    decision_note varchar(255),
+    created_at datetime(6),
+    updated_at datetime(6),
+    version integer,
+    archived_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_lra_emp_created on leave_requests_archive (employee_id, created_at);
+create index idx_lra_created on leave_requests_archive (created_at);
+
+alter table leave_requests_archive add constraint fk_lra_employee foreign key (employee_id) references employees (id);
+alter table leave_requests_archive add constraint fk_lra_approver foreign key (approver_id) references employees (id);
+
+create table leave_balances (
+    employee_id bigint not null,
+    balance_year integer not null,
+    leave_type enum ('ANNUAL','CASUAL','SICK') not null,
+    approved_days integer,
+    carried_in_days integer default 0 not null,
+    updated_at datetime(6),
+    version integer,
+    primary key (balance_year, employee_id, leave_type)
+) engine=InnoDB;
+
+create table leave_accruals (
+    employee_id bigint not null,
+    accrual_period integer not null,
+    leave_type enum ('ANNUAL','CASUAL','SICK') not null,
+    days decimal(5,2) not null,
+    created_at datetime(6),
+    primary key (accrual_period, employee_id, leave_type)
+) engine=InnoDB;
+
+create table accrual_checkpoints (
+    accrual_period integer not null,
+    partition_no integer not null,
+    from_id bigint not null,
+    to_id bigint not null,
+    cursor_id bigint not null,
+    completed bit not null,
+    employees_processed integer,
+    rows_written integer,
+    updated_at datetime(6),
+    primary key (accrual_period, partition_no)
+) engine=InnoDB;
+
+create table leave_usage_rollups (
+    department varchar(100) not null,
+    usage_month integer not null,
+    leave_type enum ('ANNUAL','CASUAL','SICK') not null,
+    requested_count integer,
+    approved_count integer,
+    pending_count integer,
+    rejected_count integer,
+    approved_days integer,
+    updated_at datetime(6),
+    primary key (usage_month, department, leave_type)
+) engine=InnoDB;
+
+create table holidays (
+    id bigint not null auto_increment,
+    calendar varchar(100) not null,
+    holiday_date date not null,
+    name varchar(255),
+    primary key (id),
+    constraint uk_holiday_calendar_date unique (calendar, holiday_date)
+) engine=InnoDB;
+
+create table idempotency_keys (
+    employee_id bigint not null,
+    idem_key varchar(100) not null,
+    request_hash varchar(64) not null,
+    leave_id bigint not null,
+    created_at datetime(6),
+    expires_at datetime(6) not null,
+    primary key (employee_id, idem_key)
+) engine=InnoDB;
+
+create index idx_idem_expires on idempotency_keys (expires_at);
+
+create table outbox_events (
+    id bigint not null auto_increment,
+    event_type varchar(32) not null,
+    leave_id bigint not null,
+    employee_id bigint not null,
+    payload text not null,
+    created_at datetime(6),
+    attempts integer,
+    next_attempt_at datetime(6),
+    dispatched_at datetime(6),
+    last_error varchar(500),
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_outbox_pending on outbox_events (dispatched_at, next_attempt_at);
@@ -0,0 +1,31 @@
+-- Composite indexes for the hot leave_requests predicates. InnoDB appends the primary key
+-- to every secondary index, so "order by created_at desc, id desc" is served in index order.
+
+-- apply() overlap check and balance SUM: employee + status, then the start_date range;
+-- end_date and days make both index-only
+create index idx_lr_emp_status_start on leave_requests (employee_id, status, start_date, end_date, days);
+
+-- an employee's leaves, newest first
+create index idx_lr_emp_created on leave_requests (employee_id, created_at);
+
+-- all leaves, newest first
+create index idx_lr_created on leave_requests (created_at);
+
+-- ledger verify/rebuild and carry-forward: APPROVED days per employee and type for one year, index-only
+create index idx_lr_status_start on leave_requests (status, start_date, employee_id, type, days);
+
+-- archive: HR status browse newest first, and the ledger SUM that still counts archived rows
+create index idx_lra_status_created on leave_requests_archive (status, created_at);
+create index idx_lra_status_start on leave_requests_archive (status, start_date, employee_id, type, days);
+
+-- now a prefix of idx_lr_queue / idx_lr_archive
+drop index idx_lr_status on leave_requests;
+
+-- a prefix of idx_lr_emp_status_start. The constraint is dropped and added back so it moves
+-- onto that index; adding it re-validates every row against employees
+alter table leave_requests drop foreign key fk_lr_employee;
+drop index idx_lr_emp on leave_requests;
+alter table leave_requests add constraint fk_lr_employee foreign key (employee_id) references employees (id);
+
+-- no query filters on the dates without a leading employee_id or status
+drop index idx_lr_dates on leave_requests;
@@ -0,0 +1,6 @@
+-- One row per department: rollup increments hold it shared, a recompute of the department
+-- holds it exclusively, so no increment lands between the recompute's read and its rewrite.
+create table leave_usage_rollup_locks (
+    department varchar(100) not null,
+    primary key (department)
+) engine=InnoDB;
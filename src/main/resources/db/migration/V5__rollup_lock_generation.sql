@@ -0,0 +1,3 @@
+-- Rollup deltas are applied after the transition commits; a recompute bumps the generation
+-- so deltas it already counted are dropped instead of applied twice.
+alter table leave_usage_rollup_locks add column generation bigint not null default 0;
@@ -0,0 +1,75 @@
+package com.example.Leave_management_system.Repository;
+
+import com.example.Leave_management_system.model.LeaveStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Upgrade path of a database that predates the migrations: the original schema, created by
+ * ddl-auto=update, with data and no Flyway history. Startup must baseline it at V1, apply the
+ * later migrations on top, keep the existing rows and pass Hibernate's schema validation.
+ */
+@SpringBootTest(properties = {"leave.search.enabled=false", "leave.outbox.dispatcher.enabled=false"})
+class MigrationTest {
+
+    private static final String URL = "jdbc:h2:mem:legacy;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    @DynamicPropertySource
+    static void legacyDatabase(DynamicPropertyRegistry registry) {
+        var ds = new DriverManagerDataSource(URL, "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline.sql")).execute(ds);
+        var jdbc = new JdbcTemplate(ds);
+        jdbc.update("""
+            insert into employees (name, email, password, department, joining_date, hr, role, annual_allocation_days)
+            values ('Old Timer', 'old@corp.test', 'x', 'Ops', '2015-04-01', false, 'EMPLOYEE', 18)""");
+        jdbc.update("""
+            insert into leave_requests (employee_id, type, status, start_date, end_date, days, reason,
+                                        created_at, updated_at, version)
+            values (1, 'ANNUAL', 'APPROVED', '2016-03-01', '2016-03-04', 4, 'before migrations',
+                    '2016-02-01 09:00:00', '2016-02-02 09:00:00', 1)""");
+        registry.add("spring.datasource.url", () -> URL);
+    }
+
+    @Autowired JdbcTemplate jdbc;
+    @Autowired LeaveRequestRepository leaveRepo;
+
+    @Test
+    void legacyDatabaseIsBaselinedAndUpgraded() {
+        List<String> history = jdbc.queryForList("""
+            select concat("version", ':', "type") from "flyway_schema_history"
+            where "version" is not null and "success" order by "installed_rank"
+            """, String.class);
+        assertEquals(List.of("1:BASELINE", "2:SQL", "3:SQL", "4:SQL", "5:SQL"), history);
+
+        var leave = leaveRepo.findAll().get(0);
+        assertEquals("before migrations", leave.getReason());
+        assertEquals(LeaveStatus.APPROVED, leave.getStatus());
+        assertNull(leave.getClaimedBy());
+
+        for (String table : List.of("leave_requests_archive", "leave_balances", "leave_accruals", "accrual_checkpoints",
+                "leave_usage_rollups", "leave_usage_rollup_locks", "holidays", "idempotency_keys", "outbox_events")) {
+            assertEquals(0, jdbc.queryForObject("select count(*) from " + table, Integer.class), table);
+        }
+    }
+
+    @Test
+    void employeeForeignKeyStillHoldsWithoutItsOwnIndex() {
+        // V3 drops idx_lr_emp; fk_lr_employee must stay enforced on the composite index instead
+        assertThrows(DataIntegrityViolationException.class, () -> jdbc.update("""
+            insert into leave_requests (employee_id, type, status, start_date, end_date, days, created_at, updated_at, version)
+            values (999999, 'ANNUAL', 'PENDING', '2016-05-02', '2016-05-02', 1, '2016-04-01 09:00:00', '2016-04-01 09:00:00', 0)"""));
+        assertThrows(DataIntegrityViolationException.class, () -> jdbc.update("delete from employees where id = 1"));
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.Leave_management_system.Repository;
+
+import com.example.Leave_management_system.model.LeaveStatus;
+import com.example.Leave_management_system.model.LeaveType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every query of the leave, archive, balance, accrual, outbox and idempotency
+ * repositories against a seeded schema built by the Flyway migrations, captures the SQL
+ * and bind values Hibernate sends, and EXPLAINs each statement. Fails when a statement
+ * reads one of those tables with a full scan, except the few queries that scan by design.
+ * Employee, holiday and rollup tables are small and not checked.
+ */
+// own in-memory database: the seeded rows would otherwise stay in the shared testdb
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:queryplan;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "leave.search.enabled=false", "leave.outbox.dispatcher.enabled=false"})
+@Import(QueryPlanTest.CaptureStatements.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* PUBLIC\\.(\\w+)\\.tableScan");
+    private static final Set<String> CHECKED = Set.of("LEAVE_REQUESTS", "LEAVE_REQUESTS_ARCHIVE",
+            "LEAVE_BALANCES", "LEAVE_ACCRUALS", "OUTBOX_EVENTS", "IDEMPOTENCY_KEYS");
+    // whole-table reads on purpose: startup warm-up, unfiltered export, search with the index disabled,
+    // and the unordered entity page (benchmarks only), which stops at offset + size rows
+    private static final Set<String> SCANS_BY_DESIGN = Set.of(
+            "streamSearchRows", "streamDtosForExport(all)", "findDtoPageMatching", "findAll(page)");
+
+    @Autowired JdbcTemplate jdbc;
+    @Autowired DataSource dataSource;
+    @Autowired PlatformTransactionManager txManager;
+    @Autowired LeaveRequestRepository leaveRepo;
+    @Autowired ArchivedLeaveRepository archiveRepo;
+    @Autowired LeaveBalanceRepository balanceRepo;
+    @Autowired LeaveAccrualRepository accrualRepo;
+    @Autowired OutboxEventRepository outboxRepo;
+    @Autowired IdempotencyKeyRepository idempotencyRepo;
+
+    private long emp;
+    private long leave;
+    private long archived;
+
+    @BeforeAll
+    void seed() {
+        var tag = UUID.randomUUID().toString().substring(0, 8);
+        var rnd = new Random(7);
+        List<Object[]> emps = new ArrayList<>();
+        for (int i = 0; i < 500; i++)
+            emps.add(new Object[]{"Plan " + i, "plan-" + tag + "-" + i + "@example.com", "x", "D" + (i % 10),
+                    LocalDate.of(2015, 1, 1), false, "EMPLOYEE", 18});
+        jdbc.batchUpdate("insert into employees (name,email,password,department,joining_date,hr,role,annual_allocation_days) values (?,?,?,?,?,?,?,?)", emps);
+        var empIds = jdbc.queryForList("select id from employees where email like ?", Long.class, "plan-" + tag + "-%");
+        emp = empIds.get(0);
+
+        String[] statuses = {"PENDING", "APPROVED", "APPROVED", "APPROVED", "REJECTED"};
+        String[] types = {"ANNUAL", "SICK", "CASUAL"};
+        List<Object[]> leaves = new ArrayList<>();
+        List<Object[]> balances = new ArrayList<>();
+        List<Object[]> accruals = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            var start = LocalDate.of(2019, 1, 1).plusDays(rnd.nextInt(365 * 7));
+            var created = start.minusDays(10).atTime(9, 0).plusSeconds(i);
+            leaves.add(new Object[]{empIds.get(rnd.nextInt(empIds.size())), types[rnd.nextInt(3)], statuses[rnd.nextInt(5)],
+                    start, start.plusDays(rnd.nextInt(3)), 1 + rnd.nextInt(3), "reason " + i, created, created, 0});
+        }
+        for (var id : empIds) {
+            for (int year = 2019; year <= 2026; year++)
+                for (var type : types) balances.add(new Object[]{id, year, type, rnd.nextInt(10), rnd.nextInt(3), 0});
+            for (int month = 1; month <= 12; month++)
+                for (var type : types) accruals.add(new Object[]{id, 202500 + month, type, 1.5});
+        }
+        jdbc.batchUpdate("insert into leave_requests (employee_id,type,status,start_date,end_date,days,reason,created_at,updated_at,version) values (?,?,?,?,?,?,?,?,?,?)", leaves);
+        jdbc.batchUpdate("insert into leave_balances (employee_id,balance_year,leave_type,approved_days,carried_in_days,version) values (?,?,?,?,?,?)", balances);
+        jdbc.batchUpdate("insert into leave_accruals (employee_id,accrual_period,leave_type,days) values (?,?,?,?)", accruals);
+        jdbc.update("""
+                insert into leave_requests_archive (id,employee_id,type,status,start_date,end_date,days,reason,created_at,updated_at,version,archived_at)
+                select id,employee_id,type,status,start_date,end_date,days,reason,created_at,updated_at,version,created_at
+                from leave_requests where status <> 'PENDING' and end_date < '2021-01-01'""");
+        List<Object[]> outbox = new ArrayList<>();
+        List<Object[]> keys = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            var at = LocalDateTime.of(2026, 1, 1, 0, 0).plusMinutes(i);
+            outbox.add(new Object[]{"LEAVE_APPLIED", i + 1, emp, "{}", at, 0, at, i % 10 == 0 ? null : at});
+            keys.add(new Object[]{empIds.get(i % empIds.size()), tag + i, "h", i + 1, at, at.plusDays(1)});
+        }
+        jdbc.batchUpdate("insert into outbox_events (event_type,leave_id,employee_id,payload,created_at,attempts,next_attempt_at,dispatched_at) values (?,?,?,?,?,?,?,?)", outbox);
+        jdbc.batchUpdate("insert into idempotency_keys (employee_id,idem_key,request_hash,leave_id,created_at,expires_at) values (?,?,?,?,?,?)", keys);
+        jdbc.execute("analyze"); // index selectivity for the planner
+
+        leave = jdbc.queryForObject("select max(id) from leave_requests where employee_id = ?", Long.class, emp);
+        archived = jdbc.queryForObject("select min(id) from leave_requests_archive", Long.class);
+    }
+
+    @Test
+    void repositoryQueriesUseIndexes() {
+        var statuses = List.of(LeaveStatus.PENDING, LeaveStatus.APPROVED);
+        var closed = List.of(LeaveStatus.APPROVED, LeaveStatus.REJECTED);
+        var yearStart = LocalDate.of(2024, 1, 1);
+        var yearEnd = LocalDate.of(2024, 12, 31);
+        var now = LocalDateTime.of(2026, 1, 2, 0, 0);
+        var page = PageRequest.of(1, 20);
+
+        Map<String, List<Captured>> byQuery = new LinkedHashMap<>();
+        var tx = new TransactionTemplate(txManager);
+        tx.executeWithoutResult(status -> {
+            // leave_requests
+            run(byQuery, "existsOverlap", () -> leaveRepo.existsByEmployee_IdAndStatusInAndEndDateGreaterThanEqualAndStartDateLessThanEqual(emp, statuses, yearStart, yearEnd));
+            run(byQuery, "findRangesByEmployee", () -> leaveRepo.findRangesByEmployee(emp, statuses));
+            run(byQuery, "sumApprovedDaysGrouped", () -> leaveRepo.sumApprovedDaysGrouped(yearStart, yearEnd));
+            run(byQuery, "sumApprovedDaysGroupedForRange", () -> leaveRepo.sumApprovedDaysGroupedForRange(yearStart, yearEnd, emp - 1, emp + 50));
+            run(byQuery, "findAllForUpdate", () -> leaveRepo.findAllForUpdate(List.of(leave, leave - 1)));
+            run(byQuery, "lockClaimable", () -> leaveRepo.lockClaimable(emp, now, PageRequest.of(0, 20)));
+            run(byQuery, "claim", () -> leaveRepo.claim(List.of(leave), emp, now));
+            run(byQuery, "lockArchivable", () -> leaveRepo.lockArchivable(closed, LocalDate.of(2021, 1, 1), PageRequest.of(0, 500)));
+            run(byQuery, "aggregateUsageByDepartment", () -> leaveRepo.aggregateUsageByDepartment("D3"));
+            run(byQuery, "findCalendarRows", () -> leaveRepo.findCalendarRows(statuses, LocalDate.of(2025, 6, 1)));
+            run(byQuery, "findCalendarRowsByDepartment", () -> leaveRepo.findCalendarRowsByDepartment("D1", statuses,
+                    LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30)));
+            run(byQuery, "findDtoById", () -> leaveRepo.findDtoById(leave));
+            run(byQuery, "findVersionById", () -> leaveRepo.findVersionById(leave));
+            run(byQuery, "findDtosByIds", () -> leaveRepo.findDtosByIds(List.of(leave, leave - 1)));
+            run(byQuery, "findDtoPage", () -> leaveRepo.findDtoPage(page));
+            run(byQuery, "findDtoPageByStatus", () -> leaveRepo.findDtoPageByStatus(LeaveStatus.PENDING, page));
+            run(byQuery, "findDtoPageByEmployee", () -> leaveRepo.findDtoPageByEmployee(emp, page));
+            run(byQuery, "findDtoPageByEmployeeAndStatus", () -> leaveRepo.findDtoPageByEmployeeAndStatus(emp, LeaveStatus.APPROVED, page));
+            run(byQuery, "findDtoSliceAfter", () -> leaveRepo.findDtoSliceAfter(now, Long.MAX_VALUE, page));
+            run(byQuery, "findDtoSliceByStatusAfter", () -> leaveRepo.findDtoSliceByStatusAfter(LeaveStatus.PENDING, now, Long.MAX_VALUE, page));
+            run(byQuery, "findDtoSliceByEmployeeAfter", () -> leaveRepo.findDtoSliceByEmployeeAfter(emp, now, Long.MAX_VALUE, page));
+            run(byQuery, "findDtoSliceByEmployeeAndStatusAfter", () -> leaveRepo.findDtoSliceByEmployeeAndStatusAfter(emp, LeaveStatus.APPROVED, now, Long.MAX_VALUE, page));
+            run(byQuery, "streamDtosForExport(all)", () -> { try (var s = leaveRepo.streamDtosForExport(null, null, null, null)) { return s.limit(1).count(); } });
+            run(byQuery, "streamDtosForExport(employee)", () -> { try (var s = leaveRepo.streamDtosForExport(null, emp, null, null)) { return s.count(); } });
+            run(byQuery, "streamSearchRows", () -> { try (var s = leaveRepo.streamSearchRows()) { return s.limit(1).count(); } });
+            run(byQuery, "findDtoPageMatching", () -> leaveRepo.findDtoPageMatching("%reason 1%", page));
+            run(byQuery, "findAll(page)", () -> leaveRepo.findAll(page));
+            run(byQuery, "deleteAllByIdIn", () -> leaveRepo.deleteAllByIdIn(List.of(leave)));
+
+            // leave_requests_archive
+            run(byQuery, "archive.copyFromHot", () -> archiveRepo.copyFromHot(List.of(leave - 1), now));
+            run(byQuery, "archive.findDtoById", () -> archiveRepo.findDtoById(archived));
+            run(byQuery, "archive.findVersionById", () -> archiveRepo.findVersionById(archived));
+            run(byQuery, "archive.findDtoPage", () -> archiveRepo.findDtoPage(page));
+            run(byQuery, "archive.findDtoPageByStatus", () -> archiveRepo.findDtoPageByStatus(LeaveStatus.REJECTED, page));
+            run(byQuery, "archive.findDtoPageByEmployee", () -> archiveRepo.findDtoPageByEmployee(emp, page));
+            run(byQuery, "archive.findDtoPageByEmployeeAndStatus", () -> archiveRepo.findDtoPageByEmployeeAndStatus(emp, LeaveStatus.APPROVED, page));
+            run(byQuery, "archive.sumApprovedDaysGrouped", () -> archiveRepo.sumApprovedDaysGrouped(LocalDate.of(2019, 1, 1), LocalDate.of(2019, 12, 31)));
+            run(byQuery, "archive.aggregateUsageByDepartment", () -> archiveRepo.aggregateUsageByDepartment("D3"));
+
+            // leave_balances, leave_accruals
+            run(byQuery, "balance.findAllById_EmployeeIdAndId_Year", () -> balanceRepo.findAllById_EmployeeIdAndId_Year(emp, 2024));
+            run(byQuery, "balance.findAllById_Year", () -> balanceRepo.findAllById_Year(2024));
+            run(byQuery, "balance.findForUpdate", () -> balanceRepo.findForUpdate(2024, List.of(emp, emp + 1)));
+            run(byQuery, "balance.findCarriedIn", () -> balanceRepo.findCarriedIn(2024, emp - 1, emp + 50));
+            run(byQuery, "balance.clearCarriedIn", () -> balanceRepo.clearCarriedIn(2024, emp - 1, emp + 50));
+            run(byQuery, "accrual.sumByType", () -> accrualRepo.sumByType(emp, 202501, 202512));
+            run(byQuery, "accrual.findAccruedEmployeeIds", () -> accrualRepo.findAccruedEmployeeIds(202503, emp - 1, emp + 50));
+            run(byQuery, "accrual.sumForRange", () -> accrualRepo.sumForRange(LeaveType.ANNUAL, 202501, 202512, emp - 1, emp + 50));
+
+            // outbox_events, idempotency_keys
+            run(byQuery, "outbox.lockDueBatch", () -> outboxRepo.lockDueBatch(now, PageRequest.of(0, 100)));
+            run(byQuery, "outbox.markDispatched", () -> outboxRepo.markDispatched(List.of(1L, 2L), now, now));
+            run(byQuery, "outbox.deleteDispatchedBefore", () -> outboxRepo.deleteDispatchedBefore(LocalDateTime.of(2026, 1, 1, 1, 0)));
+            run(byQuery, "idempotency.deleteExpired", () -> idempotencyRepo.deleteExpired(LocalDateTime.of(2026, 1, 2, 1, 0)));
+
+            status.setRollbackOnly();
+        });
+
+        List<String> fullScans = new ArrayList<>();
+        try (var c = rawConnection()) {
+            byQuery.forEach((name, statements) -> {
+                assertTrue(!statements.isEmpty(), name + " issued no SQL");
+                for (var st : statements) {
+                    var plan = explain(c, st);
+                    var m = TABLE_SCAN.matcher(plan);
+                    while (m.find()) {
+                        if (CHECKED.contains(m.group(1)) && !SCANS_BY_DESIGN.contains(name))
+                            fullScans.add(name + ": full scan of " + m.group(1) + "\n  " + st.sql);
+                    }
+                }
+            });
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+        assertTrue(fullScans.isEmpty(), "queries without a usable index:\n" + String.join("\n", fullScans));
+    }
+
+    private static void run(Map<String, List<Captured>> byQuery, String name, java.util.concurrent.Callable<?> query) {
+        CAPTURED.clear();
+        CAPTURING.set(true);
+        try {
+            query.call();
+        } catch (Exception ex) {
+            throw new IllegalStateException(name, ex);
+        } finally {
+            CAPTURING.set(false);
+        }
+        byQuery.put(name, new ArrayList<>(CAPTURED));
+    }
+
+    private Connection rawConnection() throws SQLException {
+        var handler = Proxy.isProxyClass(dataSource.getClass()) ? Proxy.getInvocationHandler(dataSource) : null;
+        return (handler instanceof Forwarding f ? (DataSource) f.target : dataSource).getConnection();
+    }
+
+    /** EXPLAIN with the same bind calls Hibernate made on the original statement. */
+    private static String explain(Connection c, Captured st) {
+        try (var ps = c.prepareStatement("explain " + st.sql)) {
+            for (var bind : st.binds) bind.method.invoke(ps, bind.args);
+            try (var rs = ps.executeQuery()) {
+                var plan = new StringBuilder();
+                while (rs.next()) plan.append(rs.getString(1)).append('\n');
+                return plan.toString();
+            }
+        } catch (SQLException | ReflectiveOperationException ex) {
+            throw new IllegalStateException("explain failed: " + st.sql, ex);
+        }
+    }
+
+    // ---------- statement capture: DataSource -> Connection -> PreparedStatement proxies ----------
+    private static final ThreadLocal<Boolean> CAPTURING = ThreadLocal.withInitial(() -> false);
+    private static final List<Captured> CAPTURED = Collections.synchronizedList(new ArrayList<>());
+
+    private record Bind(Method method, Object[] args) {}
+
+    private record Captured(String sql, List<Bind> binds) {}
+
+    @TestConfiguration
+    static class CaptureStatements {
+        @Bean
+        static BeanPostProcessor captureStatementsPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ds ? proxy(DataSource.class, new Forwarding(ds)) : bean;
+                }
+            };
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static class Forwarding implements InvocationHandler {
+        final Object target;
+
+        Forwarding(Object target) { this.target = target; }
+
+        @Override
+        public Object invoke(Object p, Method method, Object[] args) throws Throwable {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+            if (result instanceof Connection conn) return proxy(Connection.class, new Forwarding(conn));
+            if (result instanceof PreparedStatement ps && method.getName().equals("prepareStatement"))
+                return proxy(PreparedStatement.class, new Recording(ps, (String) args[0]));
+            return result;
+        }
+    }
+
+    private static final class Recording extends Forwarding {
+        final String sql;
+        final List<Bind> binds = new ArrayList<>();
+
+        Recording(PreparedStatement target, String sql) {
+            super(target);
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object p, Method method, Object[] args) throws Throwable {
+            var name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer)
+                binds.add(new Bind(method, args.clone()));
+            if (name.startsWith("execute") && CAPTURING.get())
+                CAPTURED.add(new Captured(sql, List.copyOf(binds)));
+            return super.invoke(p, method, args);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.Leave_management_system.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // 3 tokens, one every 2s
+    private final RateLimitFilter.Limit limit = new RateLimitFilter.Limit(3, 0.5 / SECOND);
+
+    @Test
+    void burstUpToCapacityThenWaitForRefill() {
+        var bucket = new RateLimitFilter.Bucket(3, 0);
+
+        assertEquals(0, bucket.tryConsume(limit, 0));
+        assertEquals(0, bucket.tryConsume(limit, 0));
+        assertEquals(0, bucket.tryConsume(limit, 0));
+        assertEquals(2 * SECOND, bucket.tryConsume(limit, 0));
+        assertEquals(SECOND, bucket.tryConsume(limit, SECOND));
+        assertEquals(0, bucket.tryConsume(limit, 2 * SECOND));
+    }
+
+    @Test
+    void refillStopsAtCapacity() {
+        var bucket = new RateLimitFilter.Bucket(0, 0);
+        long later = 3600 * SECOND;
+
+        for (int i = 0; i < 3; i++) assertEquals(0, bucket.tryConsume(limit, later));
+        assertTrue(bucket.tryConsume(limit, later) > 0);
+    }
+
+    @Test
+    void clockGoingBackwardsDoesNotDrainTokens() {
+        var bucket = new RateLimitFilter.Bucket(1, 10 * SECOND);
+
+        assertEquals(0, bucket.tryConsume(limit, 5 * SECOND));
+        assertEquals(2 * SECOND, bucket.tryConsume(limit, 10 * SECOND));
+    }
+
+    @Test
+    void nonPositiveLimitsAreRejectedAtStartup() {
+        var meters = new SimpleMeterRegistry();
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitFilter(
+                new MockEnvironment().withProperty("leave.rate-limit.auth.refill-per-second", "0"), meters));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitFilter(
+                new MockEnvironment().withProperty("leave.rate-limit.read.capacity", "0"), meters));
+        assertDoesNotThrow(() -> new RateLimitFilter(new MockEnvironment(), meters));
+    }
+}
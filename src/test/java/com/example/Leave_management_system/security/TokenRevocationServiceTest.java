@@ -0,0 +1,37 @@
+package com.example.Leave_management_system.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationServiceTest {
+
+    private final TokenRevocationService revocations = new TokenRevocationService();
+
+    @Test
+    void revokeAllRejectsEarlierTokensButNotOneIssuedInTheSameSecond() {
+        var before = Instant.now().truncatedTo(ChronoUnit.SECONDS).minusSeconds(1);
+        revocations.revokeAll(7L);
+        var relogin = Instant.now().truncatedTo(ChronoUnit.SECONDS); // iat has whole seconds
+
+        assertTrue(revocations.isRevoked(token("a", 7L, before)));
+        assertFalse(revocations.isRevoked(token("b", 7L, relogin)));
+        assertFalse(revocations.isRevoked(token("c", 8L, before)));
+    }
+
+    @Test
+    void revokeDeniesOnlyThatToken() {
+        var iat = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        revocations.revoke(token("a", 7L, iat));
+
+        assertTrue(revocations.isRevoked(token("a", 7L, iat)));
+        assertFalse(revocations.isRevoked(token("b", 7L, iat)));
+    }
+
+    private static VerifiedJwt token(String id, Long employeeId, Instant issuedAt) {
+        return new VerifiedJwt(id, "user@example.com", employeeId, "EMPLOYEE", issuedAt, issuedAt.plus(JwtUtil.TOKEN_TTL));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.Leave_management_system.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccrualServiceTest {
+
+    private static final LocalDate LONG_AGO = LocalDate.of(2020, 1, 1);
+
+    @Test
+    void twelveMonthsAddUpToTheEntitlementExactly() {
+        for (int entitlement : new int[]{1, 5, 7, 12, 20, 25, 31}) {
+            var total = BigDecimal.ZERO;
+            for (int m = 1; m <= 12; m++)
+                total = total.add(AccrualService.monthlyDays(entitlement, LONG_AGO, YearMonth.of(2025, m)));
+            assertEquals(0, total.compareTo(BigDecimal.valueOf(entitlement)), "entitlement " + entitlement);
+        }
+    }
+
+    @Test
+    void monthsAreCutFromTheRoundedRunningTotal() {
+        // 20/12 = 1.666..: running totals 1.67, 3.33, 5.00
+        assertEquals(new BigDecimal("1.67"), AccrualService.monthlyDays(20, LONG_AGO, YearMonth.of(2025, 1)));
+        assertEquals(new BigDecimal("1.66"), AccrualService.monthlyDays(20, LONG_AGO, YearMonth.of(2025, 2)));
+        assertEquals(new BigDecimal("1.67"), AccrualService.monthlyDays(20, LONG_AGO, YearMonth.of(2025, 3)));
+    }
+
+    @Test
+    void joiningMonthIsProRatedByCalendarDays() {
+        var april = YearMonth.of(2025, 4); // 30 days
+        assertEquals(new BigDecimal("0.50"), AccrualService.monthlyDays(12, LocalDate.of(2025, 4, 16), april));
+        assertEquals(new BigDecimal("1.00"), AccrualService.monthlyDays(12, LocalDate.of(2025, 4, 1), april));
+        assertEquals(new BigDecimal("0.03"), AccrualService.monthlyDays(12, LocalDate.of(2025, 4, 30), april));
+        // leap February: 1 of 29 days of 1.00 rounds to 0.03
+        assertEquals(new BigDecimal("0.03"), AccrualService.monthlyDays(12, LocalDate.of(2024, 2, 29), YearMonth.of(2024, 2)));
+    }
+
+    @Test
+    void nothingBeforeJoiningOrWithoutEntitlement() {
+        var april = YearMonth.of(2025, 4);
+        assertEquals(0, AccrualService.monthlyDays(12, LocalDate.of(2025, 5, 1), april).signum());
+        assertEquals(0, AccrualService.monthlyDays(0, LONG_AGO, april).signum());
+        assertEquals(0, AccrualService.monthlyDays(12, null, april).signum());
+    }
+}
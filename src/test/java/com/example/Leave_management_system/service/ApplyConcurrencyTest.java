@@ -0,0 +1,117 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.Repository.EmployeeRepository;
+import com.example.Leave_management_system.Repository.LeaveRequestRepository;
+import com.example.Leave_management_system.dto.ApplyLeaveRequest;
+import com.example.Leave_management_system.exception.ConflictException;
+import com.example.Leave_management_system.model.Employee;
+import com.example.Leave_management_system.model.LeaveStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Concurrent apply() for the same employee must never book overlapping leaves. */
+@SpringBootTest
+class ApplyConcurrencyTest {
+
+    private static final List<LeaveStatus> BLOCKING = List.of(LeaveStatus.PENDING, LeaveStatus.APPROVED);
+
+    @Autowired LeaveService leaveService;
+    @Autowired EmployeeRepository employeeRepo;
+    @Autowired LeaveRequestRepository leaveRepo;
+
+    @Test
+    void sameRangeFromManyThreadsIsBookedOnce() throws Exception {
+        var emp = newEmployee();
+        int threads = 16;
+        var start = new CountDownLatch(1);
+        var pool = Executors.newFixedThreadPool(threads);
+        var booked = new AtomicInteger();
+        var conflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    leaveService.apply(request(emp.getId(), LocalDate.of(2030, 3, 2), LocalDate.of(2030, 3, 6)));
+                    booked.incrementAndGet();
+                } catch (ConflictException ex) {
+                    conflicts.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (var f : futures) f.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(1, booked.get());
+        assertEquals(threads - 1, conflicts.get());
+        assertEquals(1, leaveRepo.findRangesByEmployee(emp.getId(), BLOCKING).size());
+    }
+
+    @Test
+    void contendedAppliesAcrossEmployeesNeverOverlap() throws Exception {
+        int employees = 8, threadsPerEmployee = 4, days = 10;
+        List<Employee> emps = new ArrayList<>();
+        for (int i = 0; i < employees; i++) emps.add(newEmployee());
+
+        var start = new CountDownLatch(1);
+        var pool = Executors.newFixedThreadPool(employees * threadsPerEmployee);
+        List<Future<?>> futures = new ArrayList<>();
+        for (var emp : emps) {
+            for (int t = 0; t < threadsPerEmployee; t++) {
+                // every thread of an employee races for the same one-day leaves
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int d = 0; d < days; d++) {
+                        var day = LocalDate.of(2031, 1, 1).plusWeeks(d); // Wednesdays: always a working day
+                        try {
+                            leaveService.apply(request(emp.getId(), day, day));
+                        } catch (ConflictException ignored) {
+                            // lost the race for this day
+                        }
+                    }
+                    return null;
+                }));
+            }
+        }
+        start.countDown();
+        for (var f : futures) f.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        for (var emp : emps) {
+            var ranges = leaveRepo.findRangesByEmployee(emp.getId(), BLOCKING);
+            assertEquals(days, ranges.size(), "each day booked exactly once for employee " + emp.getId());
+            assertEquals(days, ranges.stream().map(LeaveRequestRepository.DateRangeRow::getStartDate).distinct().count());
+        }
+    }
+
+    private Employee newEmployee() {
+        var tag = UUID.randomUUID().toString().substring(0, 8);
+        return employeeRepo.save(Employee.builder()
+                .name("stress-" + tag)
+                .email("stress-" + tag + "@example.com")
+                .password("x")
+                .department("Stress")
+                .joiningDate(LocalDate.of(2020, 1, 1))
+                .build());
+    }
+
+    private static ApplyLeaveRequest request(Long employeeId, LocalDate start, LocalDate end) {
+        var r = new ApplyLeaveRequest();
+        r.setEmployeeId(employeeId);
+        r.setStartDate(start);
+        r.setEndDate(end);
+        return r;
+    }
+}
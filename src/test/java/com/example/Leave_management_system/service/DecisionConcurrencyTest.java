@@ -0,0 +1,199 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.Repository.EmployeeRepository;
+import com.example.Leave_management_system.Repository.LeaveBalanceRepository;
+import com.example.Leave_management_system.Repository.LeaveRequestRepository;
+import com.example.Leave_management_system.dto.ApplyLeaveRequest;
+import com.example.Leave_management_system.dto.BatchDecisionRequest;
+import com.example.Leave_management_system.dto.BatchDecisionResponse;
+import com.example.Leave_management_system.dto.DecisionRequest;
+import com.example.Leave_management_system.exception.ConflictException;
+import com.example.Leave_management_system.model.Employee;
+import com.example.Leave_management_system.model.LeaveBalanceId;
+import com.example.Leave_management_system.model.LeaveStatus;
+import com.example.Leave_management_system.model.LeaveType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Concurrent HR decisions on the same leaves or ledger rows: conflicts are 409s or retried, never a 500. */
+@SpringBootTest
+class DecisionConcurrencyTest {
+
+    @Autowired LeaveService leaveService;
+    @Autowired EmployeeRepository employeeRepo;
+    @Autowired LeaveRequestRepository leaveRepo;
+    @Autowired LeaveBalanceRepository balanceRepo;
+
+    @Test
+    void concurrentDecisionsOfOneLeaveAreConflictsNotErrors() throws Exception {
+        var emp = newEmployee(false);
+        Long leaveId = leaveService.apply(request(emp.getId(), LocalDate.of(2030, 5, 6), LocalDate.of(2030, 5, 8)));
+        int threads = 8;
+        List<Employee> approvers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) approvers.add(newEmployee(true));
+
+        var start = new CountDownLatch(1);
+        var pool = Executors.newFixedThreadPool(threads);
+        var decided = new AtomicInteger();
+        var conflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            var hr = approvers.get(i);
+            boolean approve = i % 2 == 0; // rejections do not touch the ledger, so only the leave version guards them
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    if (approve) leaveService.approve(leaveId, decision(hr.getId()));
+                    else leaveService.reject(leaveId, decision(hr.getId()));
+                    decided.incrementAndGet();
+                } catch (ConflictException ex) {
+                    conflicts.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (var f : futures) f.get(30, TimeUnit.SECONDS); // any other exception fails here
+        pool.shutdown();
+
+        assertEquals(1, decided.get());
+        assertEquals(threads - 1, conflicts.get());
+        var status = leaveRepo.findById(leaveId).orElseThrow().getStatus();
+        int ledgerDays = balanceRepo.findById(new LeaveBalanceId(emp.getId(), 2030, LeaveType.ANNUAL))
+                .map(b -> b.getApprovedDays()).orElse(0);
+        assertEquals(status == LeaveStatus.APPROVED ? 3 : 0, ledgerDays);
+    }
+
+    @Test
+    void batchRacingSingleApprovalsThatCreateLedgerRowsReportsConflicts() throws Exception {
+        int employees = 20;
+        var hr = newEmployee(true);
+        List<Long> batchLeaves = new ArrayList<>(), singleLeaves = new ArrayList<>();
+        List<Employee> emps = new ArrayList<>();
+        for (int i = 0; i < employees; i++) {
+            var emp = newEmployee(false); // no ledger rows for 2033 yet
+            emps.add(emp);
+            batchLeaves.add(leaveService.apply(request(emp.getId(), LocalDate.of(2033, 3, 1), LocalDate.of(2033, 3, 1))));
+            singleLeaves.add(leaveService.apply(request(emp.getId(), LocalDate.of(2033, 4, 5), LocalDate.of(2033, 4, 6))));
+        }
+        var batch = new BatchDecisionRequest();
+        batch.setApproverId(hr.getId());
+        batch.setItems(batchLeaves.stream().map(id -> {
+            var item = new BatchDecisionRequest.Item();
+            item.setLeaveId(id);
+            item.setDecision(BatchDecisionRequest.Decision.APPROVE);
+            item.setNote("ok");
+            return item;
+        }).toList());
+
+        var start = new CountDownLatch(1);
+        var pool = Executors.newFixedThreadPool(2);
+        var batchResult = pool.submit(() -> {
+            start.await();
+            return leaveService.decideBatch(batch);
+        });
+        var singles = pool.submit(() -> {
+            start.await();
+            for (var id : singleLeaves) {
+                try {
+                    leaveService.approve(id, decision(hr.getId()));
+                } catch (ConflictException ex) {
+                    // lost the ledger row insert to the batch
+                }
+            }
+            return null;
+        });
+        start.countDown();
+        var result = batchResult.get(60, TimeUnit.SECONDS); // a duplicate ledger insert would fail the whole batch
+        singles.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(employees, result.getApproved() + result.getFailed());
+        for (var r : result.getResults())
+            assertTrue(r.getOutcome() == BatchDecisionResponse.Outcome.APPROVED || r.getOutcome() == BatchDecisionResponse.Outcome.CONFLICT);
+        for (int i = 0; i < employees; i++) {
+            int expected = (leaveRepo.findById(batchLeaves.get(i)).orElseThrow().getStatus() == LeaveStatus.APPROVED ? 1 : 0)
+                    + (leaveRepo.findById(singleLeaves.get(i)).orElseThrow().getStatus() == LeaveStatus.APPROVED ? 2 : 0);
+            assertEquals(expected, balanceRepo.findById(new LeaveBalanceId(emps.get(i).getId(), 2033, LeaveType.ANNUAL))
+                    .map(b -> b.getApprovedDays()).orElse(0));
+        }
+    }
+
+    @Test
+    void concurrentApprovalsOfDifferentTypesCannotOverspendTheSharedAllocation() throws Exception {
+        var hr1 = newEmployee(true);
+        var hr2 = newEmployee(true);
+        int rounds = 10;
+        var pool = Executors.newFixedThreadPool(2);
+        for (int i = 0; i < rounds; i++) {
+            var emp = employeeRepo.save(newEmployeeBuilder(false).annualAllocationDays(5).build());
+            var annual = request(emp.getId(), LocalDate.of(2034, 5, 8), LocalDate.of(2034, 5, 10));
+            var sick = request(emp.getId(), LocalDate.of(2034, 5, 15), LocalDate.of(2034, 5, 17));
+            sick.setType(LeaveType.SICK);
+            Long annualId = leaveService.apply(annual), sickId = leaveService.apply(sick); // 3 + 3 > 5
+
+            var start = new CountDownLatch(1);
+            var conflicts = new AtomicInteger();
+            List<Future<?>> futures = new ArrayList<>();
+            for (var pair : List.of(List.of(annualId, hr1.getId()), List.of(sickId, hr2.getId()))) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        leaveService.approve(pair.get(0), decision(pair.get(1)));
+                    } catch (ConflictException ex) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (var f : futures) f.get(30, TimeUnit.SECONDS);
+
+            assertEquals(1, conflicts.get());
+            int approvedDays = balanceRepo.findAllById_EmployeeIdAndId_Year(emp.getId(), 2034).stream()
+                    .mapToInt(b -> b.getApprovedDays()).sum();
+            assertEquals(3, approvedDays);
+        }
+        pool.shutdown();
+    }
+
+    Employee newEmployee(boolean hr) {
+        return employeeRepo.save(newEmployeeBuilder(hr).build());
+    }
+
+    static Employee.EmployeeBuilder newEmployeeBuilder(boolean hr) {
+        var tag = UUID.randomUUID().toString().substring(0, 8);
+        return Employee.builder()
+                .name("decide-" + tag)
+                .email("decide-" + tag + "@example.com")
+                .password("x")
+                .department("Decide")
+                .joiningDate(LocalDate.of(2020, 1, 1))
+                .hr(hr);
+    }
+
+    static ApplyLeaveRequest request(Long employeeId, LocalDate start, LocalDate end) {
+        var r = new ApplyLeaveRequest();
+        r.setEmployeeId(employeeId);
+        r.setStartDate(start);
+        r.setEndDate(end);
+        return r;
+    }
+
+    static DecisionRequest decision(Long approverId) {
+        var d = new DecisionRequest();
+        d.setApproverId(approverId);
+        d.setNote("ok");
+        return d;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.Repository.EmployeeRepository;
+import com.example.Leave_management_system.Repository.LeaveUsageRollupRepository;
+import com.example.Leave_management_system.dto.ApplyLeaveRequest;
+import com.example.Leave_management_system.model.Employee;
+import com.example.Leave_management_system.model.LeaveUsageRollup;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Increments committed while a recompute runs must survive it. */
+@SpringBootTest
+class LeaveAnalyticsRecomputeTest {
+
+    @Autowired LeaveService leaveService;
+    @Autowired LeaveAnalyticsService analytics;
+    @Autowired EmployeeRepository employeeRepo;
+    @Autowired LeaveUsageRollupRepository rollupRepo;
+
+    @Test
+    void recomputeRacingAppliesLosesNoIncrement() throws Exception {
+        var dept = "Rollup-" + UUID.randomUUID().toString().substring(0, 8);
+        int employees = 4, days = 12;
+        List<Employee> emps = new ArrayList<>();
+        for (int i = 0; i < employees; i++) emps.add(newEmployee(dept));
+
+        var pool = Executors.newFixedThreadPool(employees + 1);
+        var applying = new AtomicBoolean(true);
+        var recomputes = pool.submit(() -> {
+            int runs = 0;
+            while (applying.get()) { analytics.recompute(); runs++; }
+            return runs;
+        });
+        List<Future<?>> appliers = new ArrayList<>();
+        for (var emp : emps) {
+            appliers.add(pool.submit(() -> {
+                for (int d = 0; d < days; d++) {
+                    var day = LocalDate.of(2032, 1, 7).plusWeeks(d); // Wednesdays
+                    leaveService.apply(request(emp.getId(), day));
+                }
+                return null;
+            }));
+        }
+        for (var f : appliers) f.get(60, TimeUnit.SECONDS);
+        applying.set(false);
+        assertTrue(recomputes.get(60, TimeUnit.SECONDS) > 0);
+        pool.shutdown();
+
+        int requested = rollupsOf(dept).stream().mapToInt(LeaveUsageRollup::getRequestedCount).sum();
+        assertEquals(employees * days, requested);
+    }
+
+    private List<LeaveUsageRollup> rollupsOf(String dept) {
+        return rollupRepo.findMonthRangeByDepartment(dept, 203201, 203212);
+    }
+
+    private Employee newEmployee(String dept) {
+        var tag = UUID.randomUUID().toString().substring(0, 8);
+        return employeeRepo.save(Employee.builder()
+                .name("rollup-" + tag)
+                .email("rollup-" + tag + "@example.com")
+                .password("x")
+                .department(dept)
+                .joiningDate(LocalDate.of(2020, 1, 1))
+                .build());
+    }
+
+    private static ApplyLeaveRequest request(Long employeeId, LocalDate day) {
+        var r = new ApplyLeaveRequest();
+        r.setEmployeeId(employeeId);
+        r.setStartDate(day);
+        r.setEndDate(day);
+        return r;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.Leave_management_system.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaveOverlapIndexTest {
+
+    @Test
+    void overlapsIsInclusiveAtBothEnds() {
+        var r = LeaveOverlapIndex.Ranges.of(List.of(), 0).with(1, 10, 12);
+
+        assertTrue(r.overlaps(12, 15));
+        assertTrue(r.overlaps(5, 10));
+        assertTrue(r.overlaps(11, 11));
+        assertFalse(r.overlaps(13, 20));
+        assertFalse(r.overlaps(5, 9));
+    }
+
+    @Test
+    void longEarlyRangeIsFoundPastShorterLaterOnes() {
+        // only maxEnd sees that range 1 still covers day 25
+        var r = LeaveOverlapIndex.Ranges.of(List.of(), 0)
+                .with(1, 0, 30)
+                .with(2, 5, 6)
+                .with(3, 20, 21);
+
+        assertTrue(r.overlaps(25, 26));
+        assertFalse(r.without(1).overlaps(25, 26));
+    }
+
+    @Test
+    void rangesStartingOnTheQueryEndAreAllConsidered() {
+        var r = LeaveOverlapIndex.Ranges.of(List.of(), 0)
+                .with(1, 10, 10)
+                .with(2, 10, 40)
+                .with(3, 10, 11);
+
+        assertTrue(r.overlaps(0, 10));
+        assertTrue(r.overlaps(35, 50));
+    }
+
+    @Test
+    void matchesLinearScanOnRandomRanges() {
+        var rnd = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            var r = LeaveOverlapIndex.Ranges.of(List.of(), 0);
+            List<long[]> plain = new ArrayList<>();
+            for (int i = 0, n = rnd.nextInt(12); i < n; i++) {
+                long s = rnd.nextInt(100), e = s + rnd.nextInt(10);
+                r = r.with(i, s, e);
+                plain.add(new long[]{i, s, e});
+            }
+            if (!plain.isEmpty() && rnd.nextBoolean()) {
+                long dropped = plain.remove(rnd.nextInt(plain.size()))[0];
+                r = r.without(dropped);
+            }
+            for (int q = 0; q < 50; q++) {
+                long s = rnd.nextInt(110), e = s + rnd.nextInt(10);
+                boolean expected = plain.stream().anyMatch(p -> p[1] <= e && p[2] >= s);
+                assertEquals(expected, r.overlaps(s, e), "query " + s + ".." + e + " over " + plain.size() + " ranges");
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.Leave_management_system.service;
+
+import com.example.Leave_management_system.service.LeaveSearchIndex.Scored;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaveSearchIndexTest {
+
+    private static final BitSet NONE_DEAD = new BitSet();
+
+    @Test
+    void orUnitesIdsAndSumsScoresOfSharedOnes() {
+        var reason = new Scored(new int[]{1, 3, 5}, 3, null, 2f);
+        var name = new Scored(new int[]{3, 4}, 2, null, 3f);
+
+        var u = reason.or(name);
+
+        assertArrayEquals(new int[]{1, 3, 4, 5}, Arrays.copyOf(u.ids, u.size));
+        assertEquals(2f, u.score(0));
+        assertEquals(5f, u.score(1));
+        assertEquals(3f, u.score(2));
+        assertSame(name, Scored.EMPTY.or(name));
+    }
+
+    @Test
+    void andKeepsSharedIdsWithMergeAndWithBinarySearch() {
+        var small = new Scored(new int[]{2, 40, 77, 500}, 4, null, 1f);
+        var similar = new Scored(new int[]{1, 2, 3, 77, 80}, 5, null, 2f);
+        int[] many = IntStream.range(0, 200).map(i -> i * 2).toArray(); // > 8x larger: probed
+        var large = new Scored(many, many.length, null, 2f);
+
+        var merged = small.and(similar);
+        assertArrayEquals(new int[]{2, 77}, Arrays.copyOf(merged.ids, merged.size));
+        assertEquals(3f, merged.score(1));
+
+        var probed = small.and(large);
+        assertArrayEquals(new int[]{2, 40}, Arrays.copyOf(probed.ids, probed.size));
+        assertEquals(0, small.and(Scored.EMPTY).size);
+    }
+
+    @Test
+    void topRanksByScoreThenNewestAndPages() {
+        var hits = new Scored(new int[]{1, 2, 3, 4, 5}, 5, new float[]{1f, 3f, 2f, 3f, 1f}, 0f);
+
+        assertEquals(List.of(4L, 2L, 3L, 5L, 1L), hits.top(0, 10, NONE_DEAD).ids());
+        assertEquals(List.of(3L, 5L), hits.top(2, 2, NONE_DEAD).ids());
+        assertEquals(5, hits.top(4, 2, NONE_DEAD).total());
+        assertEquals(List.of(), hits.top(5, 2, NONE_DEAD).ids());
+    }
+
+    @Test
+    void topSkipsArchivedLeaves() {
+        var hits = new Scored(new int[]{1, 2, 3}, 3, null, 1f);
+        var dead = new BitSet();
+        dead.set(3);
+
+        var top = hits.top(0, 10, dead);
+
+        assertEquals(List.of(2L, 1L), top.ids());
+        assertEquals(2, top.total());
+    }
+
+    @Test
+    void topMatchesFullSortOnRandomScores() {
+        var rnd = new Random(7);
+        for (int round = 0; round < 100; round++) {
+            int n = 1 + rnd.nextInt(300);
+            int[] ids = IntStream.range(0, n).map(i -> i * 3 + 1).toArray();
+            float[] scores = new float[n];
+            for (int i = 0; i < n; i++) scores[i] = rnd.nextInt(5) * 0.5f; // many ties
+            var dead = new BitSet();
+            for (int id : ids) if (rnd.nextInt(10) == 0) dead.set(id);
+
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < n; i++) if (!dead.get(ids[i])) expected.add(i);
+            expected.sort(Comparator.<Integer>comparingDouble(i -> scores[i]).reversed()
+                    .thenComparing(Comparator.<Integer>comparingInt(i -> ids[i]).reversed()));
+
+            int offset = rnd.nextInt(n), limit = 1 + rnd.nextInt(20);
+            var top = new Scored(ids, n, scores, 0f).top(offset, limit, dead);
+
+            var want = expected.stream().skip(offset).limit(limit).map(i -> (long) ids[i]).toList();
+            assertEquals(want, top.ids());
+            assertEquals(expected.size(), top.total());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.Leave_management_system.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkingDayCalendarTest {
+
+    private static final Set<DayOfWeek> WEEKEND = Set.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+    private static final List<LocalDate> HOLIDAYS = List.of(
+            LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 4), LocalDate.of(2024, 12, 31), // Monday, Monday, Tuesday
+            LocalDate.of(2024, 6, 8),                                                   // Saturday: already off
+            LocalDate.of(2025, 1, 1));
+
+    @Test
+    void yearMaskCountMatchesDayByDayCount() {
+        for (int year : new int[]{2023, 2024}) { // 365 and 366 days: bits past 64, 128, ... 320
+            var mask = YearMask.of(year, WEEKEND, HOLIDAYS);
+            int days = mask.lengthOfYear();
+            int[] prefix = new int[days + 1];
+            for (int d = 1; d <= days; d++)
+                prefix[d] = prefix[d - 1] + (working(LocalDate.ofYearDay(year, d)) ? 1 : 0);
+            for (int from = 1; from <= days; from++)
+                for (int to = from; to <= days; to++)
+                    assertEquals(prefix[to] - prefix[from - 1], mask.count(from, to), year + " " + from + ".." + to);
+        }
+    }
+
+    @Test
+    void countSpansYearsAndSkipsWeekendsAndHolidays() {
+        // Fri 2024-12-27 .. Fri 2025-01-03: 27, 30, 2, 3 (31st and 1st are holidays)
+        assertEquals(4, count(LocalDate.of(2024, 12, 27), LocalDate.of(2025, 1, 3)));
+        assertEquals(0, count(LocalDate.of(2024, 6, 8), LocalDate.of(2024, 6, 9)));
+        assertEquals(0, count(LocalDate.of(2024, 5, 10), LocalDate.of(2024, 5, 9)));
+        assertEquals(1, count(LocalDate.of(2024, 5, 10), LocalDate.of(2024, 5, 10)));
+    }
+
+    @Test
+    void countOverManyYearsMatchesDayByDayCount() {
+        var start = LocalDate.of(2023, 11, 15);
+        var end = LocalDate.of(2026, 2, 3);
+        long expected = start.datesUntil(end.plusDays(1)).filter(WorkingDayCalendarTest::working).count();
+        assertEquals(expected, count(start, end));
+    }
+
+    private static int count(LocalDate start, LocalDate end) {
+        return WorkingDayCalendar.count(year -> YearMask.of(year, WEEKEND, HOLIDAYS), start, end);
+    }
+
+    private static boolean working(LocalDate d) {
+        return !WEEKEND.contains(d.getDayOfWeek()) && !HOLIDAYS.contains(d);
+    }
+}